@@ -0,0 +1,32 @@
+package com.sashkolearn.analyzeagent.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "embedding")
+@Data
+public class EmbeddingConfig {
+
+    private CacheConfig cache = new CacheConfig();
+    private BatchConfig batch = new BatchConfig();
+
+    @Data
+    public static class CacheConfig {
+        private boolean enabled = true;
+        private int maxEntries = 2000;
+    }
+
+    @Data
+    public static class BatchConfig {
+        private int maxItemsPerRequest = 128;
+        private int maxTokensPerRequest = 100_000;
+        private int maxTokensPerInput = 8000;
+        private int maxConcurrentRequests = 4;
+        private int requestsPerMinute = 500;
+        private int maxAttempts = 5;
+        private long initialBackoffMs = 1000;
+        private long maxBackoffMs = 30000;
+    }
+}
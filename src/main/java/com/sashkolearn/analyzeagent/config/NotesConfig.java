@@ -11,9 +11,76 @@ public class NotesConfig {
 
     private String path;
     private SyncConfig sync = new SyncConfig();
+    private WatchConfig watch = new WatchConfig();
+    private ChunkConfig chunk = new ChunkConfig();
+    private VectorIndexConfig vectorIndex = new VectorIndexConfig();
+    private SearchConfig search = new SearchConfig();
+    private GraphConfig graph = new GraphConfig();
+    private VisionConfig vision = new VisionConfig();
 
     @Data
     public static class SyncConfig {
-        private int batchSize = 10;
+        private int ingestParallelism = 16;
+        private int writeBatchSize = 500;
+        private int checkpointSize = 25;
+        private int transactionChunkSize = 50;
+        private int embeddingPipelineDepth = 2;
+        private int maxNoteAttempts = 3;
+    }
+
+    @Data
+    public static class WatchConfig {
+        private boolean enabled = false;
+        private long debounceMs = 2000;
+        private long maxDelayMs = 30000;
+    }
+
+    @Data
+    public static class ChunkConfig {
+        private int maxChars = 1500;
+        private int overlapChars = 200;
+    }
+
+    @Data
+    public static class VectorIndexConfig {
+        private Engine engine = Engine.PGVECTOR;
+        private int hnswM = 16;
+        private int hnswEfConstruction = 100;
+        private int hnswEfSearch = 64;
+        private int warmupFetchSize = 1000;
+
+        public enum Engine {
+            PGVECTOR, EXACT, HNSW
+        }
+    }
+
+    @Data
+    public static class SearchConfig {
+        private Mode mode = Mode.HYBRID;
+        private int candidates = 50;
+        private int minTextHits = 5;
+        private int rrfK = 60;
+
+        public enum Mode {
+            VECTOR, HYBRID
+        }
+    }
+
+    @Data
+    public static class GraphConfig {
+        private boolean enabled = true;
+        private int maxHops = 2;
+        private int maxNeighbours = 10;
+        private double teleportProbability = 0.15;
+        private double pushEpsilon = 1e-4;
+    }
+
+    @Data
+    public static class VisionConfig {
+        private int parallelism = 4;
+        private int requestsPerMinute = 50;
+        private int maxAttempts = 5;
+        private long initialBackoffMs = 2000;
+        private long maxBackoffMs = 60000;
     }
 }
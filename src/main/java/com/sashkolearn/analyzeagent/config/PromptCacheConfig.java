@@ -0,0 +1,17 @@
+package com.sashkolearn.analyzeagent.config;
+
+import lombok.Data;
+import org.springframework.ai.anthropic.api.AnthropicCacheTtl;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "anthropic.prompt-cache")
+@Data
+public class PromptCacheConfig {
+
+    private boolean enabled = true;
+    private AnthropicCacheTtl ttl = AnthropicCacheTtl.FIVE_MINUTES;
+    // Anthropic ignores breakpoints on shorter prefixes (1024 tokens for Sonnet/Opus, 2048 for Haiku)
+    private int minTokens = 1024;
+}
@@ -0,0 +1,35 @@
+package com.sashkolearn.analyzeagent.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "rag")
+@Data
+public class RagConfig {
+
+    private StreamConfig stream = new StreamConfig();
+    private ContextConfig context = new ContextConfig();
+    private AnswerCacheConfig answerCache = new AnswerCacheConfig();
+
+    @Data
+    public static class StreamConfig {
+        private boolean enabled = true;
+        private long flushIntervalMs = 750;
+    }
+
+    @Data
+    public static class ContextConfig {
+        private int maxTokens = 12000;
+        private int minExcerptTokens = 200;
+    }
+
+    @Data
+    public static class AnswerCacheConfig {
+        private boolean enabled = true;
+        private double similarityThreshold = 0.95;
+        private int ttlHours = 168;
+        private double newNoteMaxDistance = 0.6;
+    }
+}
@@ -0,0 +1,51 @@
+package com.sashkolearn.analyzeagent.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "answer_cache")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AnswerCacheEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "model", nullable = false, length = 100)
+    private String model;
+
+    @Column(name = "question", nullable = false, columnDefinition = "TEXT")
+    private String question;
+
+    // question_embedding is only used for lookup in native queries and is not mapped
+
+    @Column(name = "answer", nullable = false, columnDefinition = "TEXT")
+    private String answer;
+
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    @Column(name = "source_files", nullable = false, columnDefinition = "text[]")
+    private String[] sourceFiles;
+
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    @Column(name = "attachment_paths", nullable = false, columnDefinition = "text[]")
+    private String[] attachmentPaths;
+
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    @Column(name = "source_note_ids", nullable = false, columnDefinition = "uuid[]")
+    private UUID[] sourceNoteIds;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
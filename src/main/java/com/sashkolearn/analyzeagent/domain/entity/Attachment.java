@@ -1,8 +1,11 @@
 package com.sashkolearn.analyzeagent.domain.entity;
 
+import com.sashkolearn.analyzeagent.infrastructure.persistence.VectorType;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnTransformer;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.Type;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
@@ -30,8 +33,11 @@ public class Attachment {
     @Column(name = "description", columnDefinition = "TEXT")
     private String description;
 
+    // Read as real[] so the vector is transferred in binary rather than pgvector text format
+    @Type(VectorType.class)
+    @ColumnTransformer(read = "CAST(embedding AS real[])")
     @Column(name = "embedding", columnDefinition = "vector(1536)", insertable = false, updatable = false)
-    private String embeddingReadOnly;
+    private float[] embedding;
 
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
@@ -41,19 +47,7 @@ public class Attachment {
     @Column(name = "updated_at", nullable = false)
     private LocalDateTime updatedAt;
 
-    public float[] getEmbeddingAsFloats() {
-        if (embeddingReadOnly == null) return null;
-        String clean = embeddingReadOnly.replaceAll("[\\[\\]]", "");
-        if (clean.isEmpty()) return new float[0];
-        String[] parts = clean.split(",");
-        float[] result = new float[parts.length];
-        for (int i = 0; i < parts.length; i++) {
-            result[i] = Float.parseFloat(parts[i].trim());
-        }
-        return result;
-    }
-
     public boolean hasEmbedding() {
-        return embeddingReadOnly != null && !embeddingReadOnly.isEmpty();
+        return embedding != null && embedding.length > 0;
     }
 }
@@ -0,0 +1,53 @@
+package com.sashkolearn.analyzeagent.domain.entity;
+
+import com.sashkolearn.analyzeagent.infrastructure.persistence.VectorType;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.ColumnTransformer;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.Type;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "embedding_cache")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@IdClass(EmbeddingCacheEntry.EmbeddingCacheKey.class)
+public class EmbeddingCacheEntry {
+
+    @Id
+    @Column(name = "model", length = 100)
+    private String model;
+
+    @Id
+    @Column(name = "dimensions")
+    private Integer dimensions;
+
+    @Id
+    @Column(name = "text_hash", length = 64)
+    private String textHash;
+
+    // Read as real[] so the vector is transferred in binary rather than pgvector text format
+    @Type(VectorType.class)
+    @ColumnTransformer(read = "CAST(embedding AS real[])")
+    @Column(name = "embedding", columnDefinition = "vector", insertable = false, updatable = false)
+    private float[] embedding;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class EmbeddingCacheKey implements Serializable {
+        private String model;
+        private Integer dimensions;
+        private String textHash;
+    }
+}
@@ -30,6 +30,9 @@ public class Link {
     @Column(name = "label", length = 50)
     private String label;
 
+    @Column(name = "target_name", nullable = false, columnDefinition = "TEXT")
+    private String targetName;
+
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -0,0 +1,50 @@
+package com.sashkolearn.analyzeagent.domain.entity;
+
+import com.sashkolearn.analyzeagent.infrastructure.persistence.VectorType;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.ColumnTransformer;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.Type;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "note_chunks")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class NoteChunk {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "note_id", nullable = false)
+    private UUID noteId;
+
+    @Column(name = "chunk_index", nullable = false)
+    private Integer chunkIndex;
+
+    @Column(name = "heading", columnDefinition = "TEXT")
+    private String heading;
+
+    @Column(name = "content", nullable = false, columnDefinition = "TEXT")
+    private String content;
+
+    @Column(name = "text_hash", nullable = false, length = 64)
+    private String textHash;
+
+    // Read as real[] so the vector is transferred in binary rather than pgvector text format
+    @Type(VectorType.class)
+    @ColumnTransformer(read = "CAST(embedding AS real[])")
+    @Column(name = "embedding", columnDefinition = "vector(1536)", insertable = false, updatable = false)
+    private float[] embedding;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
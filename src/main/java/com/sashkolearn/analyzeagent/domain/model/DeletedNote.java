@@ -0,0 +1,9 @@
+package com.sashkolearn.analyzeagent.domain.model;
+
+import java.util.UUID;
+
+public record DeletedNote(
+    UUID id,
+    String fileName
+) {
+}
@@ -0,0 +1,12 @@
+package com.sashkolearn.analyzeagent.domain.model;
+
+import java.util.UUID;
+
+/**
+ * A wikilink between two notes, without its label.
+ */
+public record LinkEdge(
+    UUID fromId,
+    UUID toId
+) {
+}
@@ -0,0 +1,11 @@
+package com.sashkolearn.analyzeagent.domain.model;
+
+import java.util.UUID;
+
+public record NoteEmbedding(
+    UUID id,
+    String fileName,
+    String filePath,
+    float[] embedding
+) {
+}
@@ -0,0 +1,16 @@
+package com.sashkolearn.analyzeagent.domain.model;
+
+/**
+ * Stat + content hash of a synced note file, used to detect changes without reading the file.
+ */
+public record NoteManifestEntry(
+    String filePath,
+    Long fileMtime,
+    Long fileSize,
+    String contentHash
+) {
+    public boolean matchesStat(long size, long mtime) {
+        return fileSize != null && fileMtime != null
+            && fileSize == size && fileMtime == mtime;
+    }
+}
@@ -0,0 +1,16 @@
+package com.sashkolearn.analyzeagent.domain.model;
+
+import java.util.UUID;
+
+/**
+ * Similarity search result without note content; hydrate by id when content is needed.
+ *
+ * @param distance cosine distance to the query (0 = identical, 2 = opposite)
+ */
+public record NoteSearchHit(
+    UUID id,
+    String fileName,
+    String filePath,
+    double distance
+) {
+}
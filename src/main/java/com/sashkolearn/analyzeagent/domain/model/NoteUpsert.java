@@ -0,0 +1,11 @@
+package com.sashkolearn.analyzeagent.domain.model;
+
+public record NoteUpsert(
+    String fileName,
+    String filePath,
+    String content,
+    long fileSize,
+    long fileMtime,
+    String contentHash
+) {
+}
@@ -0,0 +1,10 @@
+package com.sashkolearn.analyzeagent.domain.model;
+
+import java.util.UUID;
+
+public record NoteUpsertResult(
+    UUID id,
+    String filePath,
+    boolean inserted
+) {
+}
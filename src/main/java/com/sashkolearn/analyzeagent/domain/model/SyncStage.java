@@ -0,0 +1,9 @@
+package com.sashkolearn.analyzeagent.domain.model;
+
+public enum SyncStage {
+    SCAN,
+    ATTACHMENTS,
+    EMBEDDINGS,
+    LINKS,
+    COMPLETED
+}
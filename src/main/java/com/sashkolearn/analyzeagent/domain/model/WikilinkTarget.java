@@ -0,0 +1,16 @@
+package com.sashkolearn.analyzeagent.domain.model;
+
+import java.util.UUID;
+
+/**
+ * A wikilink of a note and the note it resolved to.
+ *
+ * @param targetName normalized file name the wikilink points at
+ * @param toId       resolved note, null when no note has that name (yet)
+ */
+public record WikilinkTarget(
+    UUID fromId,
+    String targetName,
+    UUID toId
+) {
+}
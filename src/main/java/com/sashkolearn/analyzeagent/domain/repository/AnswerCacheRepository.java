@@ -0,0 +1,72 @@
+package com.sashkolearn.analyzeagent.domain.repository;
+
+import com.sashkolearn.analyzeagent.domain.entity.AnswerCacheEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface AnswerCacheRepository extends JpaRepository<AnswerCacheEntry, UUID> {
+
+    /**
+     * Closest cached answer within maxDistance (cosine) of the question, created after notBefore.
+     */
+    @Query(value = """
+        SELECT * FROM answer_cache
+        WHERE model = :model
+          AND created_at > :notBefore
+          AND question_embedding <=> CAST(:questionEmbedding AS vector) <= :maxDistance
+        ORDER BY question_embedding <=> CAST(:questionEmbedding AS vector)
+        LIMIT 1
+        """, nativeQuery = true)
+    Optional<AnswerCacheEntry> findClosest(@Param("model") String model,
+                                           @Param("questionEmbedding") float[] questionEmbedding,
+                                           @Param("maxDistance") double maxDistance,
+                                           @Param("notBefore") LocalDateTime notBefore);
+
+    @Modifying
+    @Query(value = """
+        INSERT INTO answer_cache (model, question, question_embedding, answer, source_files, attachment_paths, source_note_ids)
+        VALUES (:model, :question, CAST(:questionEmbedding AS vector), :answer, :sourceFiles, :attachmentPaths, :sourceNoteIds)
+        """, nativeQuery = true)
+    void insertEntry(@Param("model") String model,
+                     @Param("question") String question,
+                     @Param("questionEmbedding") float[] questionEmbedding,
+                     @Param("answer") String answer,
+                     @Param("sourceFiles") String[] sourceFiles,
+                     @Param("attachmentPaths") String[] attachmentPaths,
+                     @Param("sourceNoteIds") UUID[] sourceNoteIds);
+
+    @Modifying
+    @Query(value = "DELETE FROM answer_cache WHERE source_note_ids && CAST(:noteIds AS uuid[])", nativeQuery = true)
+    int deleteBySourceNoteIds(@Param("noteIds") UUID[] noteIds);
+
+    /**
+     * Drops answers whose question is within maxDistance (cosine) of any of the given notes' embeddings.
+     */
+    @Modifying
+    @Query(value = """
+        DELETE FROM answer_cache a
+        WHERE EXISTS (
+            SELECT 1 FROM notes n
+            WHERE n.id = ANY(CAST(:noteIds AS uuid[]))
+              AND n.embedding IS NOT NULL
+              AND n.embedding <=> a.question_embedding <= :maxDistance
+        )
+        """, nativeQuery = true)
+    int deleteNearNotes(@Param("noteIds") UUID[] noteIds, @Param("maxDistance") double maxDistance);
+
+    @Modifying
+    @Query(value = "DELETE FROM answer_cache WHERE created_at >= :since", nativeQuery = true)
+    int deleteCreatedSince(@Param("since") LocalDateTime since);
+
+    @Modifying
+    @Query(value = "DELETE FROM answer_cache WHERE created_at < :before", nativeQuery = true)
+    int deleteCreatedBefore(@Param("before") LocalDateTime before);
+}
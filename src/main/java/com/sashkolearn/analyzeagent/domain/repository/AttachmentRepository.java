@@ -7,29 +7,40 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
 @Repository
 public interface AttachmentRepository extends JpaRepository<Attachment, String> {
 
+    /**
+     * Native queries mapped to {@link Attachment} select the vector as real[] so it is transferred in binary.
+     */
+    String SELECT_ATTACHMENTS = "SELECT file_name, note_id, file_path, description, "
+            + "CAST(embedding AS real[]) AS embedding, created_at, updated_at FROM attachments ";
+
     boolean existsByFileName(String fileName);
 
+    @Query("SELECT a.fileName FROM Attachment a WHERE a.fileName IN :fileNames")
+    List<String> findExistingFileNames(@Param("fileNames") Collection<String> fileNames);
+
     List<Attachment> findByNoteId(UUID noteId);
 
+    List<Attachment> findByNoteIdIn(Collection<UUID> noteIds);
+
     @Modifying
     @Query(value = "UPDATE attachments SET embedding = CAST(:embedding AS vector) WHERE file_name = :fileName", nativeQuery = true)
-    void updateEmbedding(@Param("fileName") String fileName, @Param("embedding") String embedding);
+    void updateEmbedding(@Param("fileName") String fileName, @Param("embedding") float[] embedding);
 
     @Modifying
     @Query(value = "DELETE FROM attachments WHERE note_id = :noteId", nativeQuery = true)
     void deleteByNoteId(@Param("noteId") UUID noteId);
 
-    @Query(value = """
-        SELECT * FROM attachments
+    @Query(value = SELECT_ATTACHMENTS + """
         WHERE embedding IS NOT NULL
         ORDER BY embedding <=> CAST(:queryEmbedding AS vector)
         LIMIT :limit
         """, nativeQuery = true)
-    List<Attachment> findSimilarAttachments(@Param("queryEmbedding") String queryEmbedding, @Param("limit") int limit);
+    List<Attachment> findSimilarAttachments(@Param("queryEmbedding") float[] queryEmbedding, @Param("limit") int limit);
 }
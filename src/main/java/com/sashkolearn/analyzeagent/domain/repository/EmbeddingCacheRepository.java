@@ -0,0 +1,35 @@
+package com.sashkolearn.analyzeagent.domain.repository;
+
+import com.sashkolearn.analyzeagent.domain.entity.EmbeddingCacheEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface EmbeddingCacheRepository extends JpaRepository<EmbeddingCacheEntry, EmbeddingCacheEntry.EmbeddingCacheKey> {
+
+    @Query(value = """
+        SELECT model, dimensions, text_hash, CAST(embedding AS real[]) AS embedding, created_at
+        FROM embedding_cache
+        WHERE model = :model AND dimensions = :dimensions AND text_hash IN (:textHashes)
+        """, nativeQuery = true)
+    List<EmbeddingCacheEntry> findEntries(@Param("model") String model,
+                                          @Param("dimensions") int dimensions,
+                                          @Param("textHashes") Collection<String> textHashes);
+
+    @Modifying
+    @Query(value = """
+        INSERT INTO embedding_cache (model, dimensions, text_hash, embedding)
+        VALUES (:model, :dimensions, :textHash, CAST(:embedding AS vector))
+        ON CONFLICT DO NOTHING
+        """, nativeQuery = true)
+    void insertEntry(@Param("model") String model,
+                     @Param("dimensions") int dimensions,
+                     @Param("textHash") String textHash,
+                     @Param("embedding") float[] embedding);
+}
@@ -1,23 +1,42 @@
 package com.sashkolearn.analyzeagent.domain.repository;
 
 import com.sashkolearn.analyzeagent.domain.entity.Link;
+import com.sashkolearn.analyzeagent.domain.model.LinkEdge;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
 @Repository
-public interface LinkRepository extends JpaRepository<Link, Link.LinkId> {
+public interface LinkRepository extends JpaRepository<Link, Link.LinkId>, LinkRepositoryCustom {
 
     List<Link> findByFromId(UUID fromId);
 
     List<Link> findByToId(UUID toId);
 
-    @Modifying
-    @Query("DELETE FROM Link l WHERE l.fromId = :noteId OR l.toId = :noteId")
-    void deleteAllLinksForNote(@Param("noteId") UUID noteId);
+    /**
+     * Ids of notes linked from or to any of the given notes (1 hop, both directions).
+     */
+    @Query(value = """
+        SELECT to_id FROM links WHERE from_id IN (:noteIds)
+        UNION
+        SELECT from_id FROM links WHERE to_id IN (:noteIds)
+        """, nativeQuery = true)
+    List<UUID> findNeighbourIds(@Param("noteIds") Collection<UUID> noteIds);
+
+    @Query("SELECT new com.sashkolearn.analyzeagent.domain.model.LinkEdge(l.fromId, l.toId) FROM Link l")
+    List<LinkEdge> findAllEdges();
+
+    /**
+     * Links from or to any of the given notes.
+     */
+    @Query("""
+        SELECT new com.sashkolearn.analyzeagent.domain.model.LinkEdge(l.fromId, l.toId) FROM Link l
+        WHERE l.fromId IN :noteIds OR l.toId IN :noteIds
+        """)
+    List<LinkEdge> findEdgesTouching(@Param("noteIds") Collection<UUID> noteIds);
 }
@@ -0,0 +1,43 @@
+package com.sashkolearn.analyzeagent.domain.repository;
+
+import com.sashkolearn.analyzeagent.domain.model.WikilinkTarget;
+
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * Set-based JDBC writes of links and unresolved links that bypass the Hibernate persistence context.
+ */
+public interface LinkRepositoryCustom {
+
+    /**
+     * Deletes the links and unresolved links going out of the given notes; links pointing to them are kept.
+     *
+     * @return number of deleted links
+     */
+    int deleteOutgoingLinks(Collection<UUID> fromIds);
+
+    /**
+     * Writes wikilinks in one statement: resolved ones into links, the rest into unresolved_links.
+     * Rows that already exist are skipped.
+     *
+     * @return number of links inserted
+     */
+    int insertLinks(Collection<WikilinkTarget> wikilinks, String label);
+
+    /**
+     * Moves links into the given notes that were resolved by a name the note no longer has
+     * (it was renamed) back to unresolved_links.
+     *
+     * @return number of links detached
+     */
+    int detachRenamedTargets(Collection<UUID> noteIds);
+
+    /**
+     * Turns unresolved links naming any of the given notes into links, so notes created or renamed
+     * by a sync get their incoming links without rebuilding the notes that link to them.
+     *
+     * @return number of links resolved
+     */
+    int resolvePendingLinks(Collection<UUID> noteIds, String label);
+}
@@ -0,0 +1,108 @@
+package com.sashkolearn.analyzeagent.domain.repository;
+
+import com.sashkolearn.analyzeagent.domain.model.WikilinkTarget;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Collection;
+import java.util.UUID;
+
+@RequiredArgsConstructor
+public class LinkRepositoryCustomImpl implements LinkRepositoryCustom {
+
+    private static final String DELETE_OUTGOING_LINKS_SQL = """
+        WITH unresolved AS (
+            DELETE FROM unresolved_links WHERE from_id = ANY(?)
+        )
+        DELETE FROM links WHERE from_id = ANY(?)
+        """;
+
+    private static final String INSERT_LINKS_SQL = """
+        WITH w AS (
+            SELECT * FROM unnest(?::uuid[], ?::varchar[], ?::uuid[]) AS w(from_id, target_name, to_id)
+        ), unresolved AS (
+            INSERT INTO unresolved_links (from_id, target_name)
+            SELECT from_id, target_name FROM w WHERE to_id IS NULL
+            ON CONFLICT DO NOTHING
+        )
+        INSERT INTO links (from_id, to_id, label, target_name)
+        SELECT from_id, to_id, ?, target_name FROM w WHERE to_id IS NOT NULL
+        ON CONFLICT DO NOTHING
+        """;
+
+    private static final String DETACH_RENAMED_TARGETS_SQL = """
+        WITH stale AS (
+            DELETE FROM links l
+            USING notes n
+            WHERE n.id = ANY(?) AND l.to_id = n.id AND l.target_name <> n.file_name
+            RETURNING l.from_id, l.target_name
+        )
+        INSERT INTO unresolved_links (from_id, target_name)
+        SELECT from_id, target_name FROM stale
+        ON CONFLICT DO NOTHING
+        """;
+
+    // Same tie-break as NoteRepositoryCustom.findIdsByFileNames: the shortest path wins a shared name
+    private static final String RESOLVE_PENDING_LINKS_SQL = """
+        WITH targets AS (
+            SELECT DISTINCT ON (file_name) id, file_name
+            FROM notes
+            WHERE file_name IN (SELECT file_name FROM notes WHERE id = ANY(?))
+            ORDER BY file_name, length(file_path), file_path
+        ), resolved AS (
+            DELETE FROM unresolved_links u
+            USING targets t
+            WHERE u.target_name = t.file_name AND u.from_id <> t.id
+            RETURNING u.from_id, t.id AS to_id, u.target_name
+        )
+        INSERT INTO links (from_id, to_id, label, target_name)
+        SELECT from_id, to_id, ?, target_name FROM resolved
+        ON CONFLICT DO NOTHING
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public int deleteOutgoingLinks(Collection<UUID> fromIds) {
+        if (fromIds.isEmpty()) {
+            return 0;
+        }
+        return jdbcTemplate.update(DELETE_OUTGOING_LINKS_SQL, ps -> {
+            ps.setArray(1, ps.getConnection().createArrayOf("uuid", fromIds.toArray()));
+            ps.setArray(2, ps.getConnection().createArrayOf("uuid", fromIds.toArray()));
+        });
+    }
+
+    @Override
+    public int insertLinks(Collection<WikilinkTarget> wikilinks, String label) {
+        if (wikilinks.isEmpty()) {
+            return 0;
+        }
+        return jdbcTemplate.update(INSERT_LINKS_SQL, ps -> {
+            ps.setArray(1, ps.getConnection().createArrayOf("uuid", wikilinks.stream().map(WikilinkTarget::fromId).toArray()));
+            ps.setArray(2, ps.getConnection().createArrayOf("varchar", wikilinks.stream().map(WikilinkTarget::targetName).toArray()));
+            ps.setArray(3, ps.getConnection().createArrayOf("uuid", wikilinks.stream().map(WikilinkTarget::toId).toArray()));
+            ps.setString(4, label);
+        });
+    }
+
+    @Override
+    public int detachRenamedTargets(Collection<UUID> noteIds) {
+        if (noteIds.isEmpty()) {
+            return 0;
+        }
+        return jdbcTemplate.update(DETACH_RENAMED_TARGETS_SQL,
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("uuid", noteIds.toArray())));
+    }
+
+    @Override
+    public int resolvePendingLinks(Collection<UUID> noteIds, String label) {
+        if (noteIds.isEmpty()) {
+            return 0;
+        }
+        return jdbcTemplate.update(RESOLVE_PENDING_LINKS_SQL, ps -> {
+            ps.setArray(1, ps.getConnection().createArrayOf("uuid", noteIds.toArray()));
+            ps.setString(2, label);
+        });
+    }
+}
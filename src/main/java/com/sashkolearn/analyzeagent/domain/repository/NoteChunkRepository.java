@@ -0,0 +1,57 @@
+package com.sashkolearn.analyzeagent.domain.repository;
+
+import com.sashkolearn.analyzeagent.domain.entity.NoteChunk;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface NoteChunkRepository extends JpaRepository<NoteChunk, UUID> {
+
+    List<NoteChunk> findByNoteId(UUID noteId);
+
+    /**
+     * Keyset page of chunks without an embedding, ordered by id. Pass the last id of the
+     * previous page as afterId (nil UUID for the first page).
+     */
+    @Query(value = """
+        SELECT * FROM note_chunks
+        WHERE embedding IS NULL AND id > :afterId
+        ORDER BY id
+        LIMIT :limit
+        """, nativeQuery = true)
+    List<NoteChunk> findChunksWithoutEmbeddingAfter(@Param("afterId") UUID afterId, @Param("limit") int limit);
+
+    @Modifying
+    @Query(value = "UPDATE note_chunks SET embedding = CAST(:embedding AS vector) WHERE id = :id", nativeQuery = true)
+    void updateEmbedding(@Param("id") UUID id, @Param("embedding") float[] embedding);
+
+    /**
+     * Best matching passages of the given notes. The candidate set is small (chunks of a few notes),
+     * so this is an exact scan rather than an HNSW lookup: the MATERIALIZED CTE fences off the note
+     * filter, so the planner cannot serve the ORDER BY from the HNSW index and filter afterwards
+     * (which could return fewer rows than asked for). The vector is selected as real[] so it is
+     * transferred in binary.
+     */
+    @Query(value = """
+        WITH candidates AS MATERIALIZED (
+            SELECT id, note_id, chunk_index, heading, content, text_hash, embedding, created_at
+            FROM note_chunks
+            WHERE note_id IN (:noteIds) AND embedding IS NOT NULL
+        )
+        SELECT id, note_id, chunk_index, heading, content, text_hash,
+               CAST(embedding AS real[]) AS embedding, created_at
+        FROM candidates
+        ORDER BY candidates.embedding <=> CAST(:queryEmbedding AS vector)
+        LIMIT :limit
+        """, nativeQuery = true)
+    List<NoteChunk> findSimilarChunksInNotes(@Param("queryEmbedding") float[] queryEmbedding,
+                                             @Param("noteIds") Collection<UUID> noteIds,
+                                             @Param("limit") int limit);
+}
@@ -1,18 +1,26 @@
 package com.sashkolearn.analyzeagent.domain.repository;
 
 import com.sashkolearn.analyzeagent.domain.entity.Note;
+import com.sashkolearn.analyzeagent.domain.model.NoteManifestEntry;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface NoteRepository extends JpaRepository<Note, UUID> {
+public interface NoteRepository extends JpaRepository<Note, UUID>, NoteRepositoryCustom {
+
+    /**
+     * Native queries mapped to {@link Note} select the vector as real[] so it is transferred in binary.
+     */
+    String SELECT_NOTES = "SELECT id, file_name, file_path, content, file_size, file_mtime, content_hash, "
+            + "CAST(embedding AS real[]) AS embedding, created_at, updated_at FROM notes ";
 
     Optional<Note> findByFilePath(String filePath);
 
@@ -20,22 +28,43 @@ public interface NoteRepository extends JpaRepository<Note, UUID> {
 
     boolean existsByFilePath(String filePath);
 
-    @Query(value = "SELECT * FROM notes WHERE embedding IS NULL AND content IS NOT NULL AND LENGTH(TRIM(content)) > 0", nativeQuery = true)
-    List<Note> findNotesWithoutEmbedding();
+    @Query("SELECT new com.sashkolearn.analyzeagent.domain.model.NoteManifestEntry(n.filePath, n.fileMtime, n.fileSize, n.contentHash) FROM Note n")
+    List<NoteManifestEntry> findManifest();
+
+    @Query("SELECT new com.sashkolearn.analyzeagent.domain.model.NoteManifestEntry(n.filePath, n.fileMtime, n.fileSize, n.contentHash) FROM Note n WHERE n.filePath IN :filePaths")
+    List<NoteManifestEntry> findManifestByFilePathIn(@Param("filePaths") Collection<String> filePaths);
+
+    /**
+     * Keyset page of notes without an embedding, ordered by id. Pass the last id of the
+     * previous page as afterId (nil UUID for the first page).
+     */
+    @Query(value = SELECT_NOTES + """
+        WHERE embedding IS NULL AND id > :afterId AND LENGTH(TRIM(content)) > 0
+        ORDER BY id
+        LIMIT :limit
+        """, nativeQuery = true)
+    List<Note> findNotesWithoutEmbeddingAfter(@Param("afterId") UUID afterId, @Param("limit") int limit);
+
+    /**
+     * Keyset page of notes whose chunks are out of date, ordered by id; paged like
+     * {@link #findNotesWithoutEmbeddingAfter(UUID, int)}.
+     */
+    @Query(value = SELECT_NOTES + """
+        WHERE content_hash IS DISTINCT FROM chunked_content_hash AND id > :afterId
+        ORDER BY id
+        LIMIT :limit
+        """, nativeQuery = true)
+    List<Note> findNotesWithStaleChunksAfter(@Param("afterId") UUID afterId, @Param("limit") int limit);
+
+    @Modifying
+    @Query(value = "UPDATE notes SET chunked_content_hash = :contentHash WHERE id = :id", nativeQuery = true)
+    void markChunked(@Param("id") UUID id, @Param("contentHash") String contentHash);
 
     @Modifying
     @Query(value = "UPDATE notes SET embedding = CAST(:embedding AS vector) WHERE id = :id", nativeQuery = true)
-    void updateEmbedding(@Param("id") UUID id, @Param("embedding") String embedding);
+    void updateEmbedding(@Param("id") UUID id, @Param("embedding") float[] embedding);
 
     @Modifying
     @Query(value = "UPDATE notes SET embedding = NULL WHERE id = :id", nativeQuery = true)
     void clearEmbedding(@Param("id") UUID id);
-
-    @Query(value = """
-        SELECT * FROM notes
-        WHERE embedding IS NOT NULL
-        ORDER BY embedding <=> CAST(:queryEmbedding AS vector)
-        LIMIT :limit
-        """, nativeQuery = true)
-    List<Note> findSimilarNotes(@Param("queryEmbedding") String queryEmbedding, @Param("limit") int limit);
 }
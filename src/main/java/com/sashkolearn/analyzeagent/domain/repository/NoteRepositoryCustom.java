@@ -0,0 +1,103 @@
+package com.sashkolearn.analyzeagent.domain.repository;
+
+import com.sashkolearn.analyzeagent.domain.model.DeletedNote;
+import com.sashkolearn.analyzeagent.domain.model.NoteEmbedding;
+import com.sashkolearn.analyzeagent.domain.model.NoteManifestEntry;
+import com.sashkolearn.analyzeagent.domain.model.NoteSearchHit;
+import com.sashkolearn.analyzeagent.domain.model.NoteUpsert;
+import com.sashkolearn.analyzeagent.domain.model.NoteUpsertResult;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Set-based JDBC operations on notes that bypass the Hibernate persistence context.
+ */
+public interface NoteRepositoryCustom {
+
+    /**
+     * Inserts or updates notes by file path in one statement. Updated rows get their embedding
+     * cleared in the same statement; rows whose content hash did not change are left untouched
+     * and are not returned.
+     *
+     * @param notes notes to write
+     * @return id of every inserted or updated note
+     */
+    List<NoteUpsertResult> upsertNotes(List<NoteUpsert> notes);
+
+    /**
+     * Refreshes size and mtime of notes whose content did not change.
+     *
+     * @param entries file path + new stat (content hash is ignored)
+     */
+    void updateFileStats(List<NoteManifestEntry> entries);
+
+    /**
+     * Deletes every note whose file path is not in the given set with a single anti-join,
+     * without loading note rows into memory. Links from remaining notes into deleted ones become unresolved.
+     *
+     * @param filePaths absolute paths of all markdown files currently on disk
+     * @return deleted notes
+     */
+    List<DeletedNote> deleteNotesNotIn(Collection<String> filePaths);
+
+    /**
+     * Deletes the note at the given path and every note under it when the path was a directory.
+     * Links from remaining notes into deleted ones become unresolved.
+     *
+     * @param filePath absolute path of a removed file or directory
+     * @param directoryPrefix filePath followed by the path separator
+     * @return deleted notes
+     */
+    List<DeletedNote> deleteByFilePathOrDirectory(String filePath, String directoryPrefix);
+
+    /**
+     * Nearest notes by cosine distance, returning only id, name, path and distance
+     * (no content or embedding).
+     *
+     * @param queryEmbedding query vector
+     * @param limit max number of hits
+     * @return hits ordered by ascending distance
+     */
+    List<NoteSearchHit> findSimilarNoteHits(float[] queryEmbedding, int limit);
+
+    /**
+     * Hybrid search in one round trip: the best vector candidates and the best full-text
+     * candidates (all query terms matching, or any term when that finds too few) are fused by reciprocal rank, score = sum of 1 / (rrfK + rank).
+     *
+     * @param queryText raw query for the full-text side
+     * @param queryEmbedding query vector
+     * @param candidates candidates taken from each side before fusion
+     * @param minTextHits fewer notes matching all query terms than this makes the text side match any term
+     * @param rrfK rank damping constant
+     * @param limit max number of hits
+     * @return hits ordered by fused score; distance is the cosine distance (1 for notes without an embedding yet)
+     */
+    List<NoteSearchHit> findHybridNoteHits(String queryText, float[] queryEmbedding, int candidates,
+                                           int minTextHits, int rrfK, int limit);
+
+    /**
+     * Streams every stored note embedding with a server-side cursor. Must run inside a transaction,
+     * otherwise the driver buffers the whole result.
+     *
+     * @param fetchSize rows per round trip
+     * @param consumer receives one note at a time
+     */
+    void forEachEmbedding(int fetchSize, Consumer<NoteEmbedding> consumer);
+
+    /**
+     * @return embeddings of the given notes; notes without an embedding are not returned
+     */
+    List<NoteEmbedding> findEmbeddingsByIdIn(Collection<UUID> noteIds);
+
+    /**
+     * Resolves file names to note ids in one query. When several notes share a file name,
+     * the one with the shortest path wins (as Obsidian resolves ambiguous wikilinks).
+     *
+     * @return file name to note id; names without a note are absent
+     */
+    Map<String, UUID> findIdsByFileNames(Collection<String> fileNames);
+}
@@ -0,0 +1,286 @@
+package com.sashkolearn.analyzeagent.domain.repository;
+
+import com.sashkolearn.analyzeagent.domain.model.DeletedNote;
+import com.sashkolearn.analyzeagent.domain.model.NoteEmbedding;
+import com.sashkolearn.analyzeagent.domain.model.NoteManifestEntry;
+import com.sashkolearn.analyzeagent.domain.model.NoteSearchHit;
+import com.sashkolearn.analyzeagent.domain.model.NoteUpsert;
+import com.sashkolearn.analyzeagent.domain.model.NoteUpsertResult;
+import com.sashkolearn.analyzeagent.util.VectorUtils;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+@RequiredArgsConstructor
+public class NoteRepositoryCustomImpl implements NoteRepositoryCustom {
+
+    private static final String UPSERT_NOTES_SQL = """
+        INSERT INTO notes (file_name, file_path, content, file_size, file_mtime, content_hash)
+        SELECT * FROM unnest(?::varchar[], ?::varchar[], ?::text[], ?::bigint[], ?::bigint[], ?::varchar[])
+        ON CONFLICT (file_path) DO UPDATE SET
+            file_name = EXCLUDED.file_name,
+            content = EXCLUDED.content,
+            file_size = EXCLUDED.file_size,
+            file_mtime = EXCLUDED.file_mtime,
+            content_hash = EXCLUDED.content_hash,
+            embedding = NULL
+        WHERE notes.content_hash IS DISTINCT FROM EXCLUDED.content_hash
+        RETURNING id, file_path, (xmax = 0) AS inserted
+        """;
+
+    private static final String FIND_IDS_BY_FILE_NAMES_SQL = """
+        SELECT DISTINCT ON (file_name) file_name, id
+        FROM notes
+        WHERE file_name = ANY(?)
+        ORDER BY file_name, length(file_path), file_path
+        """;
+
+    private static final String UPDATE_FILE_STATS_SQL = """
+        UPDATE notes n
+        SET file_size = s.file_size, file_mtime = s.file_mtime
+        FROM unnest(?::varchar[], ?::bigint[], ?::bigint[]) AS s(file_path, file_size, file_mtime)
+        WHERE n.file_path = s.file_path
+        """;
+
+    // Appended to a "WITH deleted AS (DELETE FROM notes ... RETURNING id, file_name)": wikilinks from
+    // surviving notes into deleted ones become unresolved instead of vanishing with the cascade
+    private static final String UNRESOLVE_LINKS_INTO_DELETED_SQL = """
+        , unresolved AS (
+            INSERT INTO unresolved_links (from_id, target_name)
+            SELECT l.from_id, l.target_name
+            FROM links l
+            JOIN deleted d ON d.id = l.to_id
+            WHERE NOT EXISTS (SELECT 1 FROM deleted s WHERE s.id = l.from_id)
+            ON CONFLICT DO NOTHING
+        )
+        SELECT id, file_name FROM deleted
+        """;
+
+    private static final String DELETE_NOTES_NOT_IN_SQL = """
+        WITH deleted AS (
+            DELETE FROM notes n
+            WHERE NOT EXISTS (
+                SELECT 1 FROM unnest(?::varchar[]) AS d(file_path)
+                WHERE d.file_path = n.file_path
+            )
+            RETURNING n.id, n.file_name
+        )
+        """ + UNRESOLVE_LINKS_INTO_DELETED_SQL;
+
+    // Text side matches all query terms first (plainto_tsquery ANDs them). Only when that finds fewer
+    // than min_hits notes does it fall back to any term, ranked by coverage: with the 'simple' config
+    // function words ("що", "як", "the") are not stopwords, and OR-ing them always would match the whole vault.
+    private static final String FIND_HYBRID_NOTE_HITS_SQL = """
+        WITH vector_hits AS (
+            SELECT id, row_number() OVER (ORDER BY distance) AS rank
+            FROM (
+                SELECT id, embedding <=> CAST(? AS vector) AS distance
+                FROM notes
+                WHERE embedding IS NOT NULL
+                ORDER BY distance
+                LIMIT ?
+            ) v
+        ),
+        search_query AS (
+            SELECT all_terms, CAST(replace(CAST(all_terms AS text), '&', '|') AS tsquery) AS any_term, min_hits
+            FROM (SELECT plainto_tsquery('simple', ?) AS all_terms, CAST(? AS int) AS min_hits) p
+        ),
+        all_term_hits AS MATERIALIZED (
+            SELECT n.id, ts_rank_cd(n.content_tsv, q.all_terms, 1) AS text_rank
+            FROM notes n, search_query q
+            WHERE n.content_tsv @@ q.all_terms
+            ORDER BY text_rank DESC
+            LIMIT ?
+        ),
+        any_term_hits AS (
+            SELECT n.id, ts_rank_cd(n.content_tsv, q.any_term, 1) AS text_rank
+            FROM notes n, search_query q
+            WHERE (SELECT count(*) FROM all_term_hits) < (SELECT min_hits FROM search_query)
+              AND n.content_tsv @@ q.any_term
+            ORDER BY text_rank DESC
+            LIMIT ?
+        ),
+        text_hits AS (
+            SELECT id, row_number() OVER (ORDER BY text_rank DESC) AS rank
+            FROM (
+                SELECT id, text_rank FROM all_term_hits
+                WHERE (SELECT count(*) FROM all_term_hits) >= (SELECT min_hits FROM search_query)
+                UNION ALL
+                SELECT id, text_rank FROM any_term_hits
+            ) t
+        ),
+        fused AS (
+            SELECT COALESCE(v.id, t.id) AS id,
+                   COALESCE(1.0 / (? + v.rank), 0) + COALESCE(1.0 / (? + t.rank), 0) AS score
+            FROM vector_hits v
+            FULL OUTER JOIN text_hits t ON t.id = v.id
+        )
+        SELECT n.id, n.file_name, n.file_path,
+               COALESCE(n.embedding <=> CAST(? AS vector), 1) AS distance
+        FROM fused f
+        JOIN notes n ON n.id = f.id
+        ORDER BY f.score DESC
+        LIMIT ?
+        """;
+
+    private static final String DELETE_BY_FILE_PATH_OR_DIRECTORY_SQL = """
+        WITH deleted AS (
+            DELETE FROM notes
+            WHERE file_path = ? OR starts_with(file_path, ?)
+            RETURNING id, file_name
+        )
+        """ + UNRESOLVE_LINKS_INTO_DELETED_SQL;
+
+    private static final String FIND_EMBEDDINGS_SQL = """
+        SELECT id, file_name, file_path, CAST(embedding AS real[]) AS embedding
+        FROM notes
+        WHERE embedding IS NOT NULL
+        """;
+
+    private static final String FIND_EMBEDDINGS_BY_ID_IN_SQL = FIND_EMBEDDINGS_SQL + " AND id = ANY(?)";
+
+    private static final RowMapper<NoteEmbedding> NOTE_EMBEDDING_MAPPER = (rs, rowNum) -> new NoteEmbedding(
+            rs.getObject("id", UUID.class),
+            rs.getString("file_name"),
+            rs.getString("file_path"),
+            VectorUtils.fromSqlArray(rs.getArray("embedding"))
+    );
+
+    private static final RowMapper<NoteSearchHit> NOTE_SEARCH_HIT_MAPPER = (rs, rowNum) -> new NoteSearchHit(
+            rs.getObject("id", UUID.class),
+            rs.getString("file_name"),
+            rs.getString("file_path"),
+            rs.getDouble("distance")
+    );
+
+    private static final String FIND_SIMILAR_NOTE_HITS_SQL = """
+        SELECT id, file_name, file_path, embedding <=> CAST(? AS vector) AS distance
+        FROM notes
+        WHERE embedding IS NOT NULL
+        ORDER BY distance
+        LIMIT ?
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<NoteUpsertResult> upsertNotes(List<NoteUpsert> notes) {
+        if (notes.isEmpty()) {
+            return List.of();
+        }
+
+        return jdbcTemplate.query(UPSERT_NOTES_SQL, ps -> {
+            Connection connection = ps.getConnection();
+            ps.setArray(1, connection.createArrayOf("varchar", notes.stream().map(NoteUpsert::fileName).toArray()));
+            ps.setArray(2, connection.createArrayOf("varchar", notes.stream().map(NoteUpsert::filePath).toArray()));
+            ps.setArray(3, connection.createArrayOf("text", notes.stream().map(NoteUpsert::content).toArray()));
+            ps.setArray(4, connection.createArrayOf("bigint", notes.stream().map(NoteUpsert::fileSize).toArray()));
+            ps.setArray(5, connection.createArrayOf("bigint", notes.stream().map(NoteUpsert::fileMtime).toArray()));
+            ps.setArray(6, connection.createArrayOf("varchar", notes.stream().map(NoteUpsert::contentHash).toArray()));
+        }, (rs, rowNum) -> new NoteUpsertResult(
+                rs.getObject("id", UUID.class),
+                rs.getString("file_path"),
+                rs.getBoolean("inserted")
+        ));
+    }
+
+    @Override
+    public void updateFileStats(List<NoteManifestEntry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+
+        jdbcTemplate.update(UPDATE_FILE_STATS_SQL, ps -> {
+            Connection connection = ps.getConnection();
+            ps.setArray(1, connection.createArrayOf("varchar", entries.stream().map(NoteManifestEntry::filePath).toArray()));
+            ps.setArray(2, connection.createArrayOf("bigint", entries.stream().map(NoteManifestEntry::fileSize).toArray()));
+            ps.setArray(3, connection.createArrayOf("bigint", entries.stream().map(NoteManifestEntry::fileMtime).toArray()));
+        });
+    }
+
+    @Override
+    public List<DeletedNote> deleteNotesNotIn(Collection<String> filePaths) {
+        return jdbcTemplate.query(DELETE_NOTES_NOT_IN_SQL,
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("varchar", filePaths.toArray())),
+                (rs, rowNum) -> new DeletedNote(rs.getObject("id", UUID.class), rs.getString("file_name"))
+        );
+    }
+
+    @Override
+    public List<DeletedNote> deleteByFilePathOrDirectory(String filePath, String directoryPrefix) {
+        return jdbcTemplate.query(DELETE_BY_FILE_PATH_OR_DIRECTORY_SQL, ps -> {
+            ps.setString(1, filePath);
+            ps.setString(2, directoryPrefix);
+        }, (rs, rowNum) -> new DeletedNote(rs.getObject("id", UUID.class), rs.getString("file_name")));
+    }
+
+    @Override
+    public List<NoteSearchHit> findSimilarNoteHits(float[] queryEmbedding, int limit) {
+        return jdbcTemplate.query(FIND_SIMILAR_NOTE_HITS_SQL, ps -> {
+            ps.setObject(1, queryEmbedding);
+            ps.setInt(2, limit);
+        }, NOTE_SEARCH_HIT_MAPPER);
+    }
+
+    @Override
+    public List<NoteSearchHit> findHybridNoteHits(String queryText, float[] queryEmbedding, int candidates,
+                                                  int minTextHits, int rrfK, int limit) {
+        return jdbcTemplate.query(FIND_HYBRID_NOTE_HITS_SQL, ps -> {
+            ps.setObject(1, queryEmbedding);
+            ps.setInt(2, candidates);
+            ps.setString(3, queryText);
+            ps.setInt(4, minTextHits);
+            ps.setInt(5, candidates);
+            ps.setInt(6, candidates);
+            ps.setInt(7, rrfK);
+            ps.setInt(8, rrfK);
+            ps.setObject(9, queryEmbedding);
+            ps.setInt(10, limit);
+        }, NOTE_SEARCH_HIT_MAPPER);
+    }
+
+    @Override
+    public void forEachEmbedding(int fetchSize, Consumer<NoteEmbedding> consumer) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(FIND_EMBEDDINGS_SQL);
+            ps.setFetchSize(fetchSize);
+            return ps;
+        }, (RowCallbackHandler) rs -> consumer.accept(NOTE_EMBEDDING_MAPPER.mapRow(rs, rs.getRow())));
+    }
+
+    @Override
+    public List<NoteEmbedding> findEmbeddingsByIdIn(Collection<UUID> noteIds) {
+        if (noteIds.isEmpty()) {
+            return List.of();
+        }
+
+        return jdbcTemplate.query(FIND_EMBEDDINGS_BY_ID_IN_SQL,
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("uuid", noteIds.toArray())),
+                NOTE_EMBEDDING_MAPPER
+        );
+    }
+
+    @Override
+    public Map<String, UUID> findIdsByFileNames(Collection<String> fileNames) {
+        Map<String, UUID> idsByFileName = new HashMap<>();
+        if (fileNames.isEmpty()) {
+            return idsByFileName;
+        }
+
+        jdbcTemplate.query(FIND_IDS_BY_FILE_NAMES_SQL,
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("varchar", fileNames.toArray())),
+                (RowCallbackHandler) rs -> idsByFileName.put(rs.getString("file_name"), rs.getObject("id", UUID.class))
+        );
+        return idsByFileName;
+    }
+}
@@ -0,0 +1,76 @@
+package com.sashkolearn.analyzeagent.domain.repository;
+
+import com.sashkolearn.analyzeagent.domain.entity.SyncRun;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface SyncRunRepository extends JpaRepository<SyncRun, UUID> {
+
+    Optional<SyncRun> findFirstByCompletedAtIsNullOrderByStartedAtDesc();
+
+    /**
+     * Adds notes to the run; a note changed again while pending gets all its stages and attempts reset.
+     */
+    @Modifying
+    @Query(value = """
+        INSERT INTO sync_run_notes (run_id, note_id)
+        SELECT :runId, n.id FROM notes n WHERE n.id IN (:noteIds)
+        ON CONFLICT (run_id, note_id) DO UPDATE SET attachments_done = FALSE, links_done = FALSE, attempts = 0, last_error = NULL
+        """, nativeQuery = true)
+    void addRunNotes(@Param("runId") UUID runId, @Param("noteIds") Collection<UUID> noteIds);
+
+    @Query(value = "SELECT note_id FROM sync_run_notes WHERE run_id = :runId AND NOT attachments_done ORDER BY note_id", nativeQuery = true)
+    List<UUID> findPendingAttachmentNoteIds(@Param("runId") UUID runId);
+
+    @Query(value = "SELECT note_id FROM sync_run_notes WHERE run_id = :runId AND NOT links_done ORDER BY note_id", nativeQuery = true)
+    List<UUID> findPendingLinkNoteIds(@Param("runId") UUID runId);
+
+    @Query(value = """
+        SELECT note_id FROM sync_run_notes
+        WHERE run_id = :runId AND NOT attachments_done AND attempts >= :maxAttempts
+        ORDER BY note_id
+        """, nativeQuery = true)
+    List<UUID> findExhaustedAttachmentNoteIds(@Param("runId") UUID runId, @Param("maxAttempts") int maxAttempts);
+
+    @Query(value = """
+        SELECT note_id FROM sync_run_notes
+        WHERE run_id = :runId AND NOT links_done AND attempts >= :maxAttempts
+        ORDER BY note_id
+        """, nativeQuery = true)
+    List<UUID> findExhaustedLinkNoteIds(@Param("runId") UUID runId, @Param("maxAttempts") int maxAttempts);
+
+    @Modifying
+    @Query(value = "UPDATE sync_run_notes SET attempts = attempts + 1 WHERE run_id = :runId AND note_id IN (:noteIds)", nativeQuery = true)
+    void incrementAttempts(@Param("runId") UUID runId, @Param("noteIds") Collection<UUID> noteIds);
+
+    @Modifying
+    @Query(value = "UPDATE sync_run_notes SET last_error = :error WHERE run_id = :runId AND note_id = :noteId", nativeQuery = true)
+    void recordError(@Param("runId") UUID runId, @Param("noteId") UUID noteId, @Param("error") String error);
+
+    @Modifying
+    @Query(value = """
+        UPDATE sync_run_notes SET attachments_done = TRUE, attempts = 0, last_error = NULL
+        WHERE run_id = :runId AND note_id IN (:noteIds)
+        """, nativeQuery = true)
+    void markAttachmentsDone(@Param("runId") UUID runId, @Param("noteIds") Collection<UUID> noteIds);
+
+    @Modifying
+    @Query(value = """
+        UPDATE sync_run_notes SET links_done = TRUE, attempts = 0, last_error = NULL
+        WHERE run_id = :runId AND note_id IN (:noteIds)
+        """, nativeQuery = true)
+    void markLinksDone(@Param("runId") UUID runId, @Param("noteIds") Collection<UUID> noteIds);
+
+    @Modifying
+    @Query(value = "DELETE FROM sync_run_notes WHERE run_id = :runId", nativeQuery = true)
+    void deleteRunNotes(@Param("runId") UUID runId);
+}
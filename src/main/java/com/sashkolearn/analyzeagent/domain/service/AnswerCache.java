@@ -0,0 +1,144 @@
+package com.sashkolearn.analyzeagent.domain.service;
+
+import com.sashkolearn.analyzeagent.config.RagConfig;
+import com.sashkolearn.analyzeagent.domain.entity.AnswerCacheEntry;
+import com.sashkolearn.analyzeagent.domain.repository.AnswerCacheRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Semantic cache of RAG answers: a question whose embedding is within
+ * rag.answer-cache.similarity-threshold of a cached one gets the cached answer.
+ * Entries are dropped when any note their context was built from changes, and when a newly
+ * embedded note is close enough to the question that it might have been retrieved for it.
+ * Cache failures never fail a question - they are logged and treated as misses.
+ */
+@Service
+@Slf4j
+public class AnswerCache {
+
+    private final AnswerCacheRepository answerCacheRepository;
+    private final RagConfig ragConfig;
+    private final TransactionTemplate transactionTemplate;
+    private final String model;
+
+    public AnswerCache(
+            AnswerCacheRepository answerCacheRepository,
+            RagConfig ragConfig,
+            TransactionTemplate transactionTemplate,
+            @Value("${spring.ai.openai.embedding.options.model}") String model
+    ) {
+        this.answerCacheRepository = answerCacheRepository;
+        this.ragConfig = ragConfig;
+        this.transactionTemplate = transactionTemplate;
+        this.model = model;
+    }
+
+    public Optional<RagService.RagResult> find(float[] questionEmbedding) {
+        RagConfig.AnswerCacheConfig config = ragConfig.getAnswerCache();
+        if (!config.isEnabled()) {
+            return Optional.empty();
+        }
+
+        try {
+            return answerCacheRepository.findClosest(model, questionEmbedding, 1 - config.getSimilarityThreshold(), notBefore())
+                    .map(entry -> {
+                        log.info("Answer cache hit for cached question: {}", entry.getQuestion());
+                        return new RagService.RagResult(
+                                entry.getAnswer(),
+                                List.of(entry.getSourceFiles()),
+                                List.of(entry.getAttachmentPaths())
+                        );
+                    });
+        } catch (Exception e) {
+            log.warn("Answer cache lookup failed, treating as miss: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * @param sourceNoteIds every note the answer's context was built from
+     */
+    public void put(String question, float[] questionEmbedding, RagService.RagResult result, Collection<UUID> sourceNoteIds) {
+        RagConfig.AnswerCacheConfig config = ragConfig.getAnswerCache();
+        if (!config.isEnabled()) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                answerCacheRepository.deleteCreatedBefore(notBefore());
+                answerCacheRepository.insertEntry(
+                        model,
+                        question,
+                        questionEmbedding,
+                        result.answer(),
+                        result.sourceFiles().toArray(String[]::new),
+                        result.relevantAttachmentPaths().toArray(String[]::new),
+                        sourceNoteIds.toArray(UUID[]::new)
+                );
+            });
+        } catch (Exception e) {
+            log.warn("Failed to store answer in cache: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Drops cached answers built from any of the given notes.
+     */
+    public void invalidate(Collection<UUID> noteIds) {
+        if (noteIds.isEmpty()) {
+            return;
+        }
+
+        int deleted = transactionTemplate.execute(status ->
+                answerCacheRepository.deleteBySourceNoteIds(noteIds.toArray(UUID[]::new)));
+        if (deleted > 0) {
+            log.info("Invalidated {} cached answers", deleted);
+        }
+    }
+
+    /**
+     * Drops answers to questions near the given (just embedded) notes: a new note was not among
+     * the sources of any cached answer, so invalidation by source never reaches it.
+     */
+    public void invalidateNear(Collection<UUID> noteIds) {
+        if (noteIds.isEmpty()) {
+            return;
+        }
+
+        int deleted = transactionTemplate.execute(status -> answerCacheRepository.deleteNearNotes(
+                noteIds.toArray(UUID[]::new), ragConfig.getAnswerCache().getNewNoteMaxDistance()));
+        if (deleted > 0) {
+            log.info("Invalidated {} cached answers near {} newly embedded notes", deleted, noteIds.size());
+        }
+    }
+
+    /**
+     * Drops answers cached while a sync was running: their context may have missed notes
+     * that were not embedded or linked yet, so they cannot be invalidated by source.
+     * Called whether or not the sync succeeded, so failures are logged rather than thrown.
+     */
+    public void invalidateCreatedSince(LocalDateTime since) {
+        try {
+            int deleted = transactionTemplate.execute(status -> answerCacheRepository.deleteCreatedSince(since));
+            if (deleted > 0) {
+                log.info("Invalidated {} answers cached during sync", deleted);
+            }
+        } catch (Exception e) {
+            log.warn("Failed to invalidate answers cached during sync: {}", e.getMessage());
+        }
+    }
+
+    private LocalDateTime notBefore() {
+        return LocalDateTime.now().minusHours(ragConfig.getAnswerCache().getTtlHours());
+    }
+}
@@ -1,6 +1,5 @@
 package com.sashkolearn.analyzeagent.domain.service;
 
-import com.sashkolearn.analyzeagent.util.VectorUtils;
 import com.sashkolearn.analyzeagent.config.NotesConfig;
 import com.sashkolearn.analyzeagent.domain.entity.Attachment;
 import com.sashkolearn.analyzeagent.domain.entity.Note;
@@ -9,12 +8,18 @@ import com.sashkolearn.analyzeagent.domain.repository.NoteRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 @Service
@@ -27,79 +32,113 @@ public class AttachmentService {
     private final AttachmentRepository attachmentRepository;
     private final ImageReferenceParserService imageParser;
     private final ClaudeVisionService claudeVisionService;
-    private final EmbeddingService embeddingService;
+    private final EmbeddingBatcher embeddingBatcher;
+    private final TransactionTemplate transactionTemplate;
 
     /**
      * Processes image attachments for the given notes.
      * Extracts image references, analyzes them with Claude Vision,
      * and stores descriptions and embeddings.
+     * Images are described concurrently (see {@link ClaudeVisionService#describeImages(List)}),
+     * descriptions are embedded in batches, and everything is stored in one short transaction;
+     * vision and embedding calls run outside of it.
      *
      * @param changedNoteIds list of note IDs to process
      * @return processing result
      */
-    @Transactional
     public AttachmentResult processAttachmentsForNotes(List<UUID> changedNoteIds) {
         log.info("Processing attachments for {} notes", changedNoteIds.size());
 
         Path notesPath = Paths.get(notesConfig.getPath());
         Path imgPath = notesPath.resolve("img");
 
-        int processed = 0;
+        List<Note> notes = noteRepository.findAllById(changedNoteIds);
+        if (notes.size() < changedNoteIds.size()) {
+            log.warn("{} notes not found", changedNoteIds.size() - notes.size());
+        }
+
+        Map<Note, List<String>> imageRefsByNote = new LinkedHashMap<>();
+        Set<String> referencedImages = new HashSet<>();
+        for (Note note : notes) {
+            List<String> imageRefs = imageParser.extractImageReferences(note.getContent());
+            imageRefsByNote.put(note, imageRefs);
+            referencedImages.addAll(imageRefs);
+        }
+        Set<String> processedImages = referencedImages.isEmpty()
+                ? new HashSet<>()
+                : new HashSet<>(attachmentRepository.findExistingFileNames(referencedImages));
+
         int skipped = 0;
         int errors = 0;
+        List<Attachment> pending = new ArrayList<>();
+        List<ClaudeVisionService.ImageRequest> requests = new ArrayList<>();
+
+        for (Map.Entry<Note, List<String>> entry : imageRefsByNote.entrySet()) {
+            Note note = entry.getKey();
+            List<Attachment> notePending = new ArrayList<>();
+
+            for (String imageFileName : entry.getValue()) {
+                // An image referenced twice (also from another note) is described once
+                if (!processedImages.add(imageFileName)) {
+                    log.debug("Image already processed, skipping: {}", imageFileName);
+                    skipped++;
+                    continue;
+                }
 
-        for (UUID noteId : changedNoteIds) {
-            var noteOpt = noteRepository.findById(noteId);
-            if (noteOpt.isEmpty()) {
-                log.warn("Note not found: {}", noteId);
-                continue;
+                Path imagePath = imgPath.resolve(imageFileName);
+                if (!Files.exists(imagePath)) {
+                    log.warn("Image not found: {}", imagePath);
+                    errors++;
+                    continue;
+                }
+
+                notePending.add(Attachment.builder()
+                        .fileName(imageFileName)
+                        .noteId(note.getId())
+                        .filePath(imagePath.toString())
+                        .build());
             }
 
-            Note note = noteOpt.get();
-            List<String> imageRefs = imageParser.extractImageReferences(note.getContent());
+            // Caching the note context pays off only when more than one new image of the note is described;
+            // every request then carries the breakpoint, since cache reads only happen at breakpoints
+            boolean cacheNoteContext = notePending.size() > 1;
+            for (Attachment attachment : notePending) {
+                pending.add(attachment);
+                requests.add(new ClaudeVisionService.ImageRequest(Path.of(attachment.getFilePath()), note.getContent(), cacheNoteContext));
+            }
+        }
 
-            for (String imageFileName : imageRefs) {
-                try {
-                    if (attachmentRepository.existsByFileName(imageFileName)) {
-                        log.debug("Image already processed, skipping: {}", imageFileName);
-                        skipped++;
-                        continue;
-                    }
-
-                    Path imagePath = imgPath.resolve(imageFileName);
-                    if (!Files.exists(imagePath)) {
-                        log.warn("Image not found: {}", imagePath);
-                        errors++;
-                        continue;
-                    }
-
-                    String description = claudeVisionService.describeImage(imagePath, note.getContent());
-
-                    Attachment attachment = Attachment.builder()
-                            .fileName(imageFileName)
-                            .noteId(noteId)
-                            .filePath(imagePath.toString())
-                            .description(description)
-                            .build();
-                    attachmentRepository.save(attachment);
-
-                    if (description != null && !description.isEmpty()) {
-                        float[] embedding = embeddingService.generateEmbedding(description);
-                        String embeddingStr = VectorUtils.toVectorString(embedding);
-                        attachmentRepository.updateEmbedding(imageFileName, embeddingStr);
-                    }
-
-                    processed++;
-                    log.info("Processed image: {}", imageFileName);
-
-                } catch (Exception e) {
-                    log.error("Failed to process image {}: {}", imageFileName, e.getMessage());
-                    errors++;
-                }
+        List<String> descriptions = claudeVisionService.describeImages(requests);
+
+        List<Attachment> described = new ArrayList<>();
+        for (int i = 0; i < pending.size(); i++) {
+            if (descriptions.get(i) == null) {
+                log.error("Failed to process image {}", pending.get(i).getFileName());
+                errors++;
+                continue;
             }
+            pending.get(i).setDescription(descriptions.get(i));
+            described.add(pending.get(i));
         }
 
-        AttachmentResult result = new AttachmentResult(processed, skipped, errors);
+        List<String> texts = described.stream()
+                .map(Attachment::getDescription)
+                .filter(description -> !description.isEmpty())
+                .toList();
+        Iterator<float[]> embeddings = embeddingBatcher.embedAll(texts).iterator();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            attachmentRepository.saveAll(described);
+            for (Attachment attachment : described) {
+                float[] embedding = attachment.getDescription().isEmpty() ? null : embeddings.next();
+                if (embedding != null) {
+                    attachmentRepository.updateEmbedding(attachment.getFileName(), embedding);
+                }
+            }
+        });
+        described.forEach(attachment -> log.info("Processed image: {}", attachment.getFileName()));
+
+        AttachmentResult result = new AttachmentResult(described.size(), skipped, errors);
         log.info("Attachment processing completed: {}", result);
         return result;
     }
@@ -1,8 +1,12 @@
 package com.sashkolearn.analyzeagent.domain.service;
 
-import lombok.RequiredArgsConstructor;
+import com.sashkolearn.analyzeagent.config.NotesConfig;
+import com.sashkolearn.analyzeagent.util.AiErrors;
+import com.sashkolearn.analyzeagent.util.Backoff;
+import com.sashkolearn.analyzeagent.util.TokenBucket;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.anthropic.AnthropicChatModel;
+import org.springframework.ai.chat.messages.SystemMessage;
 import org.springframework.ai.chat.messages.UserMessage;
 import org.springframework.ai.chat.prompt.Prompt;
 import org.springframework.ai.content.Media;
@@ -11,21 +15,39 @@ import org.springframework.stereotype.Service;
 import org.springframework.util.MimeTypeUtils;
 
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
 
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class ClaudeVisionService {
 
     private final AnthropicChatModel anthropicChatModel;
+    private final PromptCaching promptCaching;
+    private final NotesConfig.VisionConfig config;
+    private final TokenBucket rateLimiter;
 
+    public ClaudeVisionService(AnthropicChatModel anthropicChatModel, PromptCaching promptCaching, NotesConfig notesConfig) {
+        this.anthropicChatModel = anthropicChatModel;
+        this.promptCaching = promptCaching;
+        this.config = notesConfig.getVision();
+        this.rateLimiter = TokenBucket.perMinute(config.getRequestsPerMinute());
+    }
+
+    // Instructions and note content form the system message - the prefix shared by every image of a note
     private static final String IMAGE_DESCRIPTION_PROMPT = """
-            This image comes from a notebook with the following content:
+            Images you are given come from a notebook with the following content:
             ---
             %s
             ---
 
-            Describe what you see in this image in detail, keeping in mind the notebook context above. Focus on:
+            Describe what you see in the image in detail, keeping in mind the notebook context above. Focus on:
             - Any text, labels, or written content
             - Diagrams, charts, or visual structures
             - Key visual elements and their relationships
@@ -34,13 +56,105 @@ public class ClaudeVisionService {
             Provide a concise but comprehensive description that would help someone understand the image content without seeing it.
             """;
 
+    private static final String IMAGE_REQUEST = "Describe this image.";
+
+    /**
+     * Describes many images concurrently: at most notes.vision.parallelism requests in flight,
+     * started no faster than notes.vision.requests-per-minute, and throttled requests retried
+     * with exponential backoff. Of adjacent requests sharing a cached note context, the first is
+     * sent alone and the rest only after it finished, so they read the cache entry it wrote instead
+     * of all paying for a cache write at once.
+     *
+     * @return descriptions in the same order as the requests; null for an image that failed
+     */
+    public List<String> describeImages(List<ImageRequest> requests) {
+        String[] descriptions = new String[requests.size()];
+        if (requests.isEmpty()) {
+            return Arrays.asList(descriptions);
+        }
+
+        log.info("Describing {} images with parallelism {}", requests.size(), config.getParallelism());
+        Semaphore inFlight = new Semaphore(Math.max(1, config.getParallelism()));
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> futures = new ArrayList<>();
+            Future<?> cacheWriter = null;
+            for (int i = 0; i < requests.size(); i++) {
+                int index = i;
+                ImageRequest request = requests.get(i);
+                boolean sameContext = i > 0 && request.cacheNoteContext()
+                        && requests.get(i - 1).cacheNoteContext()
+                        && request.noteContent().equals(requests.get(i - 1).noteContent());
+                Future<?> awaited = sameContext ? cacheWriter : null;
+
+                Future<?> future = executor.submit(() -> {
+                    if (awaited != null) {
+                        awaitQuietly(awaited);
+                    }
+                    inFlight.acquire();
+                    try {
+                        descriptions[index] = describeWithRetry(request);
+                    } finally {
+                        inFlight.release();
+                    }
+                    return null;
+                });
+                if (!sameContext) {
+                    cacheWriter = future;
+                }
+                futures.add(future);
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Image description interrupted", e);
+        } catch (Exception e) {
+            throw new IllegalStateException("Image description failed: " + e.getMessage(), e);
+        }
+
+        return Arrays.asList(descriptions);
+    }
+
+    /**
+     * Waits for the request that writes the shared cache entry; its outcome does not matter here.
+     */
+    private static void awaitQuietly(Future<?> future) throws InterruptedException {
+        try {
+            future.get();
+        } catch (ExecutionException e) {
+            log.debug("Cache-writing request failed, continuing uncached: {}", e.getMessage());
+        }
+    }
+
+    private String describeWithRetry(ImageRequest request) throws InterruptedException {
+        Backoff backoff = new Backoff(config.getInitialBackoffMs(), config.getMaxBackoffMs());
+        for (int attempt = 1; ; attempt++) {
+            rateLimiter.acquire();
+            try {
+                return describeImage(request.imagePath(), request.noteContent(), request.cacheNoteContext());
+            } catch (Exception e) {
+                if (!AiErrors.isThrottling(e) || attempt >= config.getMaxAttempts()) {
+                    return null;
+                }
+                long delayMs = backoff.nextDelayMs();
+                log.warn("Vision request for {} throttled (attempt {}/{}), retrying in {} ms",
+                        request.imagePath().getFileName(), attempt, config.getMaxAttempts(), delayMs);
+                backoff.sleep(delayMs);
+            }
+        }
+    }
+
     /**
      * Analyzes an image using Claude Vision and returns a text description.
      *
      * @param imagePath path to the image file
+     * @param cacheNoteContext whether the note has several images, so caching the note context
+     *                         pays off (a cache write costs more than uncached input); the breakpoint
+     *                         is still skipped for a note context below the cache minimum
      * @return text description of the image
      */
-    public String describeImage(Path imagePath, String noteContent) {
+    public String describeImage(Path imagePath, String noteContent, boolean cacheNoteContext) {
         log.debug("Describing image: {}", imagePath);
 
         try {
@@ -48,11 +162,14 @@ public class ClaudeVisionService {
             var mimeType = getMimeType(imagePath);
             var media = new Media(mimeType, imageResource);
 
-            var promptText = String.format(IMAGE_DESCRIPTION_PROMPT, noteContent);
-            var userMessage = UserMessage.builder().text(promptText).media(media).build();
-            var prompt = new Prompt(userMessage);
+            var systemMessage = new SystemMessage(String.format(IMAGE_DESCRIPTION_PROMPT, noteContent));
+            var userMessage = UserMessage.builder().text(IMAGE_REQUEST).media(media).build();
+            var prompt = cacheNoteContext
+                    ? new Prompt(List.of(systemMessage, userMessage), promptCaching.systemPromptCached())
+                    : new Prompt(List.of(systemMessage, userMessage));
 
             var response = anthropicChatModel.call(prompt);
+            promptCaching.recordUsage("vision", response);
             String description = response.getResult().getOutput().getText();
 
             log.debug("Generated description for {}: {} chars", imagePath.getFileName(), description.length());
@@ -78,4 +195,10 @@ public class ClaudeVisionService {
             return MimeTypeUtils.APPLICATION_OCTET_STREAM;
         }
     }
+
+    /**
+     * @param cacheNoteContext see {@link #describeImage(Path, String, boolean)}
+     */
+    public record ImageRequest(Path imagePath, String noteContent, boolean cacheNoteContext) {
+    }
 }
@@ -0,0 +1,98 @@
+package com.sashkolearn.analyzeagent.domain.service;
+
+import com.sashkolearn.analyzeagent.config.RagConfig;
+import com.sashkolearn.analyzeagent.util.TokenUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Packs ranked note sections into a prompt context under a token budget (rag.context.max-tokens).
+ * Sections are taken in rank order; one that does not fit is cut to an excerpt if enough budget
+ * remains, otherwise dropped, and packing goes on with the next (possibly smaller) section.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ContextPacker {
+
+    private static final String EXCERPT_MARKER = "\n[...]\n";
+
+    private final RagConfig ragConfig;
+
+    /**
+     * @param sections candidates, best first
+     */
+    public PackedContext pack(List<Section> sections) {
+        RagConfig.ContextConfig config = ragConfig.getContext();
+        int remaining = config.getMaxTokens();
+
+        StringBuilder sb = new StringBuilder();
+        List<String> included = new ArrayList<>();
+        List<String> excerpted = new ArrayList<>();
+        List<String> dropped = new ArrayList<>();
+
+        for (Section section : sections) {
+            String header = "--- File: " + section.fileName() + " ---\n";
+            int headerTokens = TokenUtils.countTokens(header);
+            int bodyTokens = TokenUtils.countTokens(section.body());
+
+            if (headerTokens + bodyTokens <= remaining) {
+                sb.append(header).append(section.body()).append("\n\n");
+                remaining -= headerTokens + bodyTokens;
+                included.add(section.fileName());
+            } else if (remaining - headerTokens >= config.getMinExcerptTokens()) {
+                String excerpt = excerpt(section.body(), remaining - headerTokens - TokenUtils.countTokens(EXCERPT_MARKER));
+                sb.append(header).append(excerpt).append(EXCERPT_MARKER).append("\n");
+                remaining -= headerTokens + TokenUtils.countTokens(excerpt + EXCERPT_MARKER);
+                excerpted.add(section.fileName());
+            } else {
+                dropped.add(section.fileName());
+            }
+        }
+
+        int usedTokens = config.getMaxTokens() - remaining;
+        log.info("Packed context: {}/{} tokens, {} full, {} excerpted {}, {} dropped {}",
+                usedTokens, config.getMaxTokens(), included.size(), excerpted.size(), excerpted, dropped.size(), dropped);
+        return new PackedContext(sb.toString(), usedTokens, included, excerpted, dropped);
+    }
+
+    /**
+     * Takes the longest prefix within maxTokens, then backs off to the last paragraph or line
+     * break in it so the excerpt ends on a whole line when possible.
+     */
+    private String excerpt(String body, int maxTokens) {
+        String prefix = TokenUtils.truncateToTokens(body, maxTokens);
+        if (prefix.length() == body.length()) {
+            return body;
+        }
+        int maxChars = prefix.length();
+        int cut = prefix.lastIndexOf("\n\n");
+        if (cut < maxChars / 2) {
+            cut = prefix.lastIndexOf('\n');
+        }
+        if (cut < maxChars / 2) {
+            cut = maxChars;
+        }
+        return prefix.substring(0, cut);
+    }
+
+    /**
+     * @param fileName note file name, used as the section header
+     * @param body section text (note content or its best passages, plus attachment descriptions)
+     */
+    public record Section(String fileName, String body) {
+    }
+
+    public record PackedContext(
+            String text,
+            int estimatedTokens,
+            List<String> includedFiles,
+            List<String> excerptedFiles,
+            List<String> droppedFiles
+    ) {
+    }
+}
@@ -0,0 +1,158 @@
+package com.sashkolearn.analyzeagent.domain.service;
+
+import com.sashkolearn.analyzeagent.config.EmbeddingConfig;
+import com.sashkolearn.analyzeagent.util.AiErrors;
+import com.sashkolearn.analyzeagent.util.Backoff;
+import com.sashkolearn.analyzeagent.util.TokenBucket;
+import com.sashkolearn.analyzeagent.util.TokenUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Packs texts into embedding requests by token budget instead of a fixed count,
+ * runs several requests concurrently under a rate limit, retries throttled requests with backoff,
+ * and splits a rejected request in halves so one bad input does not cost the whole batch.
+ */
+@Service
+@Slf4j
+public class EmbeddingBatcher {
+
+    private final EmbeddingService embeddingService;
+    private final EmbeddingConfig embeddingConfig;
+    private final TokenBucket rateLimiter;
+
+    public EmbeddingBatcher(EmbeddingService embeddingService, EmbeddingConfig embeddingConfig) {
+        this.embeddingService = embeddingService;
+        this.embeddingConfig = embeddingConfig;
+        this.rateLimiter = TokenBucket.perMinute(embeddingConfig.getBatch().getRequestsPerMinute());
+    }
+
+    /**
+     * Number of texts worth handing to {@link #embedAll(List)} at once to keep every
+     * concurrent request slot busy.
+     */
+    public int windowSize() {
+        EmbeddingConfig.BatchConfig batch = embeddingConfig.getBatch();
+        return Math.max(1, batch.getMaxItemsPerRequest() * batch.getMaxConcurrentRequests());
+    }
+
+    /**
+     * @param texts texts to vectorize
+     * @return embeddings in the same order as texts; null for a text that failed on its own
+     */
+    public List<float[]> embedAll(List<String> texts) {
+        float[][] results = new float[texts.size()][];
+        if (texts.isEmpty()) {
+            return Arrays.asList(results);
+        }
+
+        List<List<Integer>> requests = packRequests(texts);
+        log.info("Embedding {} texts in {} requests", texts.size(), requests.size());
+
+        Semaphore inFlight = new Semaphore(Math.max(1, embeddingConfig.getBatch().getMaxConcurrentRequests()));
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (List<Integer> request : requests) {
+                futures.add(executor.submit(() -> {
+                    inFlight.acquire();
+                    try {
+                        embedWithSplit(texts, request, results);
+                    } finally {
+                        inFlight.release();
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Embedding batch interrupted", e);
+        } catch (Exception e) {
+            throw new IllegalStateException("Embedding batch failed: " + e.getMessage(), e);
+        }
+
+        return Arrays.asList(results);
+    }
+
+    private List<List<Integer>> packRequests(List<String> texts) {
+        EmbeddingConfig.BatchConfig batch = embeddingConfig.getBatch();
+        List<List<Integer>> requests = new ArrayList<>();
+        List<Integer> current = new ArrayList<>();
+        long currentTokens = 0;
+
+        for (int i = 0; i < texts.size(); i++) {
+            long tokens = cappedTokens(texts.get(i));
+            if (!current.isEmpty()
+                    && (current.size() >= batch.getMaxItemsPerRequest() || currentTokens + tokens > batch.getMaxTokensPerRequest())) {
+                requests.add(current);
+                current = new ArrayList<>();
+                currentTokens = 0;
+            }
+            current.add(i);
+            currentTokens += tokens;
+        }
+        if (!current.isEmpty()) {
+            requests.add(current);
+        }
+        return requests;
+    }
+
+    private void embedWithSplit(List<String> texts, List<Integer> request, float[][] results) throws InterruptedException {
+        EmbeddingConfig.BatchConfig batch = embeddingConfig.getBatch();
+        Backoff backoff = new Backoff(batch.getInitialBackoffMs(), batch.getMaxBackoffMs());
+        for (int attempt = 1; ; attempt++) {
+            rateLimiter.acquire();
+            try {
+                List<float[]> embeddings = embeddingService.generateEmbeddingsBatch(
+                        request.stream().map(i -> truncate(texts.get(i))).toList());
+                for (int i = 0; i < request.size(); i++) {
+                    results[request.get(i)] = embeddings.get(i);
+                }
+                return;
+            } catch (Exception e) {
+                if (AiErrors.isThrottling(e) && attempt < batch.getMaxAttempts()) {
+                    long delayMs = backoff.nextDelayMs();
+                    log.warn("Embedding request of {} texts throttled (attempt {}/{}), retrying in {} ms",
+                            request.size(), attempt, batch.getMaxAttempts(), delayMs);
+                    backoff.sleep(delayMs);
+                    continue;
+                }
+                if (AiErrors.isInvalidInput(e) && request.size() > 1) {
+                    log.warn("Embedding request of {} texts rejected, splitting: {}", request.size(), e.getMessage());
+                    int middle = request.size() / 2;
+                    embedWithSplit(texts, request.subList(0, middle), results);
+                    embedWithSplit(texts, request.subList(middle, request.size()), results);
+                    return;
+                }
+                log.error("Failed to embed {} texts starting at #{}: {}", request.size(), request.getFirst(), e.getMessage());
+                return;
+            }
+        }
+    }
+
+    /**
+     * Cuts a text that alone exceeds the model's per-input limit - better a vector of the
+     * beginning than none at all (long notes are also indexed passage by passage).
+     */
+    private String truncate(String text) {
+        String truncated = TokenUtils.truncateToTokens(text, embeddingConfig.getBatch().getMaxTokensPerInput());
+        if (truncated.length() < text.length()) {
+            log.debug("Truncated text of {} chars to {} for embedding", text.length(), truncated.length());
+        }
+        return truncated;
+    }
+
+    private long cappedTokens(String text) {
+        return Math.min(TokenUtils.countTokens(text), embeddingConfig.getBatch().getMaxTokensPerInput() + 1);
+    }
+}
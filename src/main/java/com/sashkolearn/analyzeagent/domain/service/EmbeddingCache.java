@@ -0,0 +1,117 @@
+package com.sashkolearn.analyzeagent.domain.service;
+
+import com.sashkolearn.analyzeagent.config.EmbeddingConfig;
+import com.sashkolearn.analyzeagent.domain.entity.EmbeddingCacheEntry;
+import com.sashkolearn.analyzeagent.domain.repository.EmbeddingCacheRepository;
+import com.sashkolearn.analyzeagent.util.HashUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Two-tier cache of embeddings keyed by (model, dimensions, hash of normalized text):
+ * an in-process LRU in front of the embedding_cache table.
+ */
+@Service
+@Slf4j
+public class EmbeddingCache {
+
+    private final EmbeddingCacheRepository embeddingCacheRepository;
+    private final EmbeddingConfig embeddingConfig;
+    private final TransactionTemplate transactionTemplate;
+    private final String model;
+    private final int dimensions;
+    private final Map<String, float[]> localCache;
+
+    public EmbeddingCache(
+            EmbeddingCacheRepository embeddingCacheRepository,
+            EmbeddingConfig embeddingConfig,
+            TransactionTemplate transactionTemplate,
+            @Value("${spring.ai.openai.embedding.options.model}") String model,
+            @Value("${spring.ai.openai.embedding.options.dimensions}") int dimensions
+    ) {
+        this.embeddingCacheRepository = embeddingCacheRepository;
+        this.embeddingConfig = embeddingConfig;
+        this.transactionTemplate = transactionTemplate;
+        this.model = model;
+        this.dimensions = dimensions;
+
+        int maxEntries = embeddingConfig.getCache().getMaxEntries();
+        this.localCache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, float[]> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
+
+    /**
+     * Cache key of a text: SHA-256 of its NFC-normalized, line-ending-normalized, trimmed form.
+     */
+    public String keyOf(String text) {
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFC)
+                .replace("\r\n", "\n")
+                .strip();
+        return HashUtils.sha256Hex(normalized);
+    }
+
+    /**
+     * @param keys cache keys from {@link #keyOf(String)}
+     * @return cached embeddings by key; misses are absent
+     */
+    public Map<String, float[]> getAll(Collection<String> keys) {
+        Map<String, float[]> found = new HashMap<>();
+        if (!embeddingConfig.getCache().isEnabled() || keys.isEmpty()) {
+            return found;
+        }
+
+        List<String> localMisses = new ArrayList<>();
+        for (String key : keys) {
+            float[] embedding = localCache.get(key);
+            if (embedding != null) {
+                found.put(key, embedding);
+            } else {
+                localMisses.add(key);
+            }
+        }
+
+        if (!localMisses.isEmpty()) {
+            try {
+                for (EmbeddingCacheEntry entry : embeddingCacheRepository.findEntries(model, dimensions, localMisses)) {
+                    float[] embedding = entry.getEmbedding();
+                    found.put(entry.getTextHash(), embedding);
+                    localCache.put(entry.getTextHash(), embedding);
+                }
+            } catch (Exception e) {
+                log.warn("Embedding cache lookup failed, treating as misses: {}", e.getMessage());
+            }
+        }
+
+        log.debug("Embedding cache: {} hits, {} misses", found.size(), keys.size() - found.size());
+        return found;
+    }
+
+    public void putAll(Map<String, float[]> embeddings) {
+        if (!embeddingConfig.getCache().isEnabled() || embeddings.isEmpty()) {
+            return;
+        }
+
+        localCache.putAll(embeddings);
+        try {
+            transactionTemplate.executeWithoutResult(status -> embeddings.forEach((key, embedding) ->
+                    embeddingCacheRepository.insertEntry(model, dimensions, key, embedding)));
+        } catch (Exception e) {
+            log.warn("Failed to persist {} embeddings to cache: {}", embeddings.size(), e.getMessage());
+        }
+    }
+}
@@ -7,7 +7,11 @@ import org.springframework.ai.embedding.EmbeddingModel;
 import org.springframework.ai.embedding.EmbeddingResponse;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
@@ -15,10 +19,12 @@ import java.util.List;
 public class EmbeddingService {
 
     private final EmbeddingModel embeddingModel;
+    private final EmbeddingCache embeddingCache;
 
     /**
      * Generates embedding vector for text
      * Uses OpenAI text-embedding-3-small (1536 dimensions)
+     * Previously embedded texts are served from {@link EmbeddingCache}
      *
      * @param text text to vectorize
      * @return float[] array with 1536 elements
@@ -28,6 +34,13 @@ public class EmbeddingService {
             throw new IllegalArgumentException("Text cannot be null or blank");
         }
 
+        String key = embeddingCache.keyOf(text);
+        float[] cached = embeddingCache.getAll(List.of(key)).get(key);
+        if (cached != null) {
+            log.debug("Embedding cache hit for text (length: {})", text.length());
+            return cached;
+        }
+
         try {
             log.debug("Generating embedding for text (length: {})", text.length());
 
@@ -35,6 +48,7 @@ public class EmbeddingService {
 
             // Get embedding as float[] directly
             float[] result = response.getResults().getFirst().getOutput();
+            embeddingCache.putAll(Map.of(key, result));
 
             log.debug("Generated embedding with {} dimensions", result.length);
             return result;
@@ -45,24 +59,58 @@ public class EmbeddingService {
         }
     }
 
+    /**
+     * Batch variant of {@link #generateEmbedding(String)}. Each text is looked up in the cache
+     * first and only the misses (deduplicated) are sent to the API.
+     *
+     * @param texts texts to vectorize
+     * @return embeddings in the same order as texts
+     */
     public List<float[]> generateEmbeddingsBatch(List<String> texts) {
         if (texts == null || texts.isEmpty()) {
             throw new IllegalArgumentException("Texts list cannot be null or empty");
         }
 
-        try {
-            log.info("Generating embeddings for batch of {} texts", texts.size());
+        List<String> keys = texts.stream().map(embeddingCache::keyOf).toList();
+        Map<String, float[]> embeddings = new HashMap<>(embeddingCache.getAll(keys));
 
-            // Batch request to OpenAI API
-            EmbeddingResponse response = embeddingModel.embedForResponse(texts);
+        Map<String, String> missingTexts = new LinkedHashMap<>();
+        for (int i = 0; i < texts.size(); i++) {
+            if (!embeddings.containsKey(keys.get(i))) {
+                missingTexts.putIfAbsent(keys.get(i), texts.get(i));
+            }
+        }
 
-            return response.getResults().stream()
-                .map(Embedding::getOutput)
-                .toList();
+        if (!missingTexts.isEmpty()) {
+            try {
+                log.info("Generating embeddings for batch of {} texts ({} cached)",
+                        missingTexts.size(), texts.size() - missingTexts.size());
 
-        } catch (Exception e) {
-            log.error("Failed to generate batch embeddings for {} texts", texts.size(), e);
-            throw new RuntimeException("Failed to generate batch embeddings: " + e.getMessage(), e);
+                // Batch request to OpenAI API
+                EmbeddingResponse response = embeddingModel.embedForResponse(new ArrayList<>(missingTexts.values()));
+
+                List<float[]> generated = response.getResults().stream()
+                    .map(Embedding::getOutput)
+                    .toList();
+
+                Map<String, float[]> newEmbeddings = new HashMap<>();
+                List<String> missingKeys = new ArrayList<>(missingTexts.keySet());
+                for (int i = 0; i < missingKeys.size(); i++) {
+                    newEmbeddings.put(missingKeys.get(i), generated.get(i));
+                }
+                embeddings.putAll(newEmbeddings);
+                embeddingCache.putAll(newEmbeddings);
+
+            } catch (Exception e) {
+                log.error("Failed to generate batch embeddings for {} texts", missingTexts.size(), e);
+                throw new RuntimeException("Failed to generate batch embeddings: " + e.getMessage(), e);
+            }
+        } else {
+            log.info("All {} embeddings served from cache", texts.size());
         }
+
+        return keys.stream()
+            .map(embeddings::get)
+            .toList();
     }
 }
@@ -0,0 +1,122 @@
+package com.sashkolearn.analyzeagent.domain.service;
+
+import com.sashkolearn.analyzeagent.config.NotesConfig;
+import com.sashkolearn.analyzeagent.domain.repository.LinkRepository;
+import com.sashkolearn.analyzeagent.infrastructure.graph.LinkGraph;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process copy of the link graph (notes.graph.enabled). Loaded at startup; the sync pipeline
+ * marks notes whose links changed and applies them in one rebuild per run. Until loaded, callers
+ * use the links table directly.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LinkGraphService {
+
+    private final LinkRepository linkRepository;
+    private final NotesConfig notesConfig;
+
+    // Above this many changed notes reading all links is cheaper than a huge IN list
+    private static final int FULL_RELOAD_THRESHOLD = 2000;
+
+    private final Set<UUID> staleNoteIds = ConcurrentHashMap.newKeySet();
+    private volatile LinkGraph graph = LinkGraph.EMPTY;
+    private volatile boolean ready;
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!notesConfig.getGraph().isEnabled()) {
+            return;
+        }
+
+        Thread.ofVirtual().name("link-graph-warmup").start(() -> {
+            long start = System.currentTimeMillis();
+            try {
+                synchronized (this) {
+                    graph = LinkGraph.build(linkRepository.findAllEdges());
+                    ready = true;
+                    // Changes marked while loading may not be in what was read
+                    applyPendingChanges();
+                }
+                log.info("Link graph loaded: {} notes, {} links in {} ms",
+                        graph.nodeCount(), graph.edgeCount(), System.currentTimeMillis() - start);
+            } catch (Exception e) {
+                log.error("Link graph load failed, related notes stay on the links table", e);
+            }
+        });
+    }
+
+    /**
+     * Records notes whose links changed (or that were deleted) for the next {@link #applyPendingChanges()}.
+     */
+    public void markStale(Collection<UUID> noteIds) {
+        if (notesConfig.getGraph().isEnabled()) {
+            staleNoteIds.addAll(noteIds);
+        }
+    }
+
+    /**
+     * Reloads the links of every note marked stale since the last call, in a single rebuild of the
+     * graph (deleted notes simply lose theirs); past a few thousand notes the whole graph is reloaded.
+     * Called once per sync run, after the link stage.
+     */
+    public synchronized void applyPendingChanges() {
+        if (!ready || staleNoteIds.isEmpty()) {
+            // Before warm-up the marks stay pending: the load may have read the links before these changes
+            return;
+        }
+        List<UUID> noteIds = List.copyOf(staleNoteIds);
+        staleNoteIds.removeAll(noteIds);
+        long start = System.currentTimeMillis();
+        try {
+            graph = noteIds.size() > FULL_RELOAD_THRESHOLD
+                    ? LinkGraph.build(linkRepository.findAllEdges())
+                    : graph.withEdgesReplaced(noteIds, linkRepository.findEdgesTouching(noteIds));
+            log.info("Link graph updated for {} notes in {} ms: {} notes, {} links",
+                    noteIds.size(), System.currentTimeMillis() - start, graph.nodeCount(), graph.edgeCount());
+        } catch (RuntimeException e) {
+            staleNoteIds.addAll(noteIds);
+            log.error("Link graph update failed, retried after the next sync", e);
+        }
+    }
+
+    /**
+     * Neighbours of the seed notes ranked by personalized PageRank, best first, at most
+     * notes.graph.max-neighbours of them within notes.graph.max-hops links.
+     *
+     * @param rankedSeeds seed notes, best first; earlier seeds get more weight
+     */
+    public List<UUID> rankNeighbours(List<UUID> rankedSeeds) {
+        NotesConfig.GraphConfig config = notesConfig.getGraph();
+
+        Map<UUID, Double> seedWeights = new LinkedHashMap<>();
+        for (int i = 0; i < rankedSeeds.size(); i++) {
+            seedWeights.putIfAbsent(rankedSeeds.get(i), 1.0 / (i + 1));
+        }
+
+        return graph.personalizedPageRank(seedWeights, config.getTeleportProbability(), config.getPushEpsilon(), config.getMaxHops())
+                .entrySet().stream()
+                .sorted(Map.Entry.<UUID, Double>comparingByValue().reversed())
+                .limit(config.getMaxNeighbours())
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+}
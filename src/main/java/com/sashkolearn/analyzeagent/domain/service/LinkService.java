@@ -1,16 +1,21 @@
 package com.sashkolearn.analyzeagent.domain.service;
 
-import com.sashkolearn.analyzeagent.domain.entity.Link;
+import com.sashkolearn.analyzeagent.config.NotesConfig;
 import com.sashkolearn.analyzeagent.domain.entity.Note;
+import com.sashkolearn.analyzeagent.domain.model.WikilinkTarget;
 import com.sashkolearn.analyzeagent.domain.repository.LinkRepository;
 import com.sashkolearn.analyzeagent.domain.repository.NoteRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 @Service
@@ -21,12 +26,19 @@ public class LinkService {
     private final LinkRepository linkRepository;
     private final NoteRepository noteRepository;
     private final WikilinkParserService wikilinkParser;
+    private final NotesConfig notesConfig;
+    private final TransactionTemplate transactionTemplate;
+    private final LinkGraphService linkGraphService;
+
+    private static final String RELATED_LABEL = "RELATED";
+    // No file name is this long; longer targets are stray [[...]] text and would bloat the target name indexes
+    private static final int MAX_TARGET_NAME_LENGTH = 1000;
 
     /**
      * Builds links only for changed notes (new or updated)
      * More efficient than buildAllLinks() - doesn't rebuild unchanged notes
+     * Commits every notes.sync.transaction-chunk-size notes
      */
-    @Transactional
     public LinkBuildResult buildLinksForChangedNotes(List<UUID> changedNoteIds) {
         if (changedNoteIds.isEmpty()) {
             log.info("No changed notes to process for links");
@@ -35,23 +47,16 @@ public class LinkService {
 
         log.info("Building links for {} changed notes", changedNoteIds.size());
 
+        int chunkSize = Math.max(1, notesConfig.getSync().getTransactionChunkSize());
         int totalLinks = 0;
         int brokenLinks = 0;
 
-        for (UUID noteId : changedNoteIds) {
-            Optional<Note> noteOpt = noteRepository.findById(noteId);
-            if (noteOpt.isEmpty()) {
-                log.warn("Note not found: {}", noteId);
-                continue;
-            }
-
-            try {
-                LinkStats stats = buildLinksForNote(noteOpt.get());
-                totalLinks += stats.created();
-                brokenLinks += stats.broken();
-            } catch (Exception e) {
-                log.error("Failed to build links for note: {}", noteId, e);
-            }
+        for (int i = 0; i < changedNoteIds.size(); i += chunkSize) {
+            List<UUID> chunk = changedNoteIds.subList(i, Math.min(i + chunkSize, changedNoteIds.size()));
+            LinkStats stats = buildLinksForNotes(chunk);
+            linkGraphService.markStale(chunk);
+            totalLinks += stats.created();
+            brokenLinks += stats.broken();
         }
 
         LinkBuildResult result = new LinkBuildResult(changedNoteIds.size(), totalLinks, brokenLinks);
@@ -60,86 +65,86 @@ public class LinkService {
     }
 
     /**
-     * Builds links for a single note
+     * Replaces the outgoing links of the given notes. All their wikilinks are resolved with one
+     * file name lookup and written with one insert, so the cost does not grow with round trips per link.
+     * Wikilinks without a target are kept as unresolved links; links into the notes are kept, detached
+     * when a note was renamed, and pending links naming a note are resolved - so incoming links stay
+     * correct without rebuilding the notes they come from.
      */
-    @Transactional
-    public LinkStats buildLinksForNote(Note fromNote) {
-        log.debug("Building links for note: {}", fromNote.getFileName());
-
-        // Delete old links for this note
-        linkRepository.deleteAllLinksForNote(fromNote.getId());
-
-        List<String> wikilinks = wikilinkParser.extractWikilinks(fromNote.getContent());
-
-        if (wikilinks.isEmpty()) {
-            log.debug("No wikilinks found in: {}", fromNote.getFileName());
-            return new LinkStats(0, 0);
+    private LinkStats buildLinksForNotes(List<UUID> noteIds) {
+        List<Note> notes = noteRepository.findAllById(noteIds);
+        if (notes.size() < noteIds.size()) {
+            log.warn("{} notes not found while building links", noteIds.size() - notes.size());
         }
 
-        int createdLinks = 0;
-        int brokenLinks = 0;
-
-        for (String wikilinkFileName : wikilinks) {
-
-            String normalizedFileName = wikilinkParser.normalizeFileName(wikilinkFileName);
-
-            Optional<Note> targetNote = noteRepository.findByFileName(normalizedFileName);
-
-            if (targetNote.isEmpty()) {
-                log.warn("Broken wikilink in {}: [[{}]] - target not found",
-                        fromNote.getFileName(), wikilinkFileName);
-                brokenLinks++;
-                continue;
-            }
-
-            // Don't create self-references (application level protection)
-            if (targetNote.get().getId().equals(fromNote.getId())) {
-                log.debug("Skipping self-reference in: {}", fromNote.getFileName());
-                continue;
-            }
-
-            Link link = Link.builder()
-                    .fromId(fromNote.getId())
-                    .toId(targetNote.get().getId())
-                    .label("RELATED")
-                    .build();
+        Map<UUID, List<String>> wikilinksByNote = new HashMap<>();
+        Set<String> fileNames = new HashSet<>();
+        for (Note note : notes) {
+            List<String> wikilinks = wikilinkParser.extractWikilinks(note.getContent());
+            wikilinksByNote.put(note.getId(), wikilinks);
+            fileNames.addAll(wikilinks);
+        }
 
-            try {
-                linkRepository.save(link);
-                createdLinks++;
-                log.debug("Created link: {} -> {}", fromNote.getFileName(), targetNote.get().getFileName());
+        Map<String, UUID> idsByFileName = noteRepository.findIdsByFileNames(fileNames);
 
-            } catch (Exception e) {
-                log.debug("Duplicate link ignored: {} -> {}",
-                        fromNote.getFileName(), targetNote.get().getFileName());
+        Set<WikilinkTarget> wikilinks = new LinkedHashSet<>();
+        int brokenLinks = 0;
+        for (Note note : notes) {
+            for (String fileName : wikilinksByNote.get(note.getId())) {
+                if (fileName.length() > MAX_TARGET_NAME_LENGTH) {
+                    log.warn("Skipping wikilink in {}: target of {} chars is not a note name", note.getFileName(), fileName.length());
+                    continue;
+                }
+                UUID targetId = idsByFileName.get(fileName);
+                if (targetId == null) {
+                    log.warn("Broken wikilink in {}: [[{}]] - target not found", note.getFileName(), fileName);
+                    brokenLinks++;
+                } else if (targetId.equals(note.getId())) {
+                    // Self-references are skipped (application level protection)
+                    continue;
+                }
+                wikilinks.add(new WikilinkTarget(note.getId(), fileName, targetId));
             }
         }
 
-        log.info("Created {} links ({} broken) for: {}",
-                createdLinks, brokenLinks, fromNote.getFileName());
-
-        return new LinkStats(createdLinks, brokenLinks);
+        List<UUID> foundIds = notes.stream().map(Note::getId).toList();
+        LinkWrites writes = transactionTemplate.execute(status -> {
+            linkRepository.deleteOutgoingLinks(foundIds);
+            return new LinkWrites(
+                    linkRepository.insertLinks(wikilinks, RELATED_LABEL),
+                    linkRepository.detachRenamedTargets(foundIds),
+                    linkRepository.resolvePendingLinks(foundIds, RELATED_LABEL)
+            );
+        });
+
+        log.info("Created {} links ({} broken) for {} notes; {} incoming links detached from renamed notes, {} pending links resolved",
+                writes.created(), brokenLinks, notes.size(), writes.detached(), writes.resolved());
+        return new LinkStats(writes.created() + writes.resolved(), brokenLinks);
     }
 
     /**
-     * Finds all related notes (outgoing + incoming)
+     * Related notes of the given ones, without loading the notes. With the in-process graph loaded
+     * these are multi-hop neighbours ranked by personalized PageRank (best first, capped);
+     * otherwise every 1-hop neighbour from a single query.
+     *
+     * @param rankedNoteIds seed notes, best first
      */
-    public List<Note> findRelatedNotes(Note note) {
-        List<Link> outgoingLinks = linkRepository.findByFromId(note.getId());
-        List<Link> incomingLinks = linkRepository.findByToId(note.getId());
-
-        return java.util.stream.Stream.concat(
-                        outgoingLinks.stream().map(link -> noteRepository.findById(link.getToId()).orElse(null)),
-                        incomingLinks.stream().map(link -> noteRepository.findById(link.getFromId()).orElse(null))
-                )
-                .filter(java.util.Objects::nonNull)
-                .distinct()
-                .toList();
+    public List<UUID> findRelatedNoteIds(List<UUID> rankedNoteIds) {
+        if (rankedNoteIds.isEmpty()) {
+            return List.of();
+        }
+        if (linkGraphService.isReady()) {
+            return linkGraphService.rankNeighbours(rankedNoteIds);
+        }
+        return linkRepository.findNeighbourIds(rankedNoteIds);
     }
 
     private record LinkStats(int created, int broken) {
     }
 
+    private record LinkWrites(int created, int detached, int resolved) {
+    }
+
     public record LinkBuildResult(
             int totalNotes,
             int totalLinks,
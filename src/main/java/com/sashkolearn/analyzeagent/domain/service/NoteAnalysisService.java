@@ -1,8 +1,6 @@
 package com.sashkolearn.analyzeagent.domain.service;
 
-import com.sashkolearn.analyzeagent.domain.entity.Note;
-import com.sashkolearn.analyzeagent.domain.repository.NoteRepository;
-import com.sashkolearn.analyzeagent.util.VectorUtils;
+import com.sashkolearn.analyzeagent.domain.model.NoteSearchHit;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -19,7 +17,7 @@ public class NoteAnalysisService {
 
     private final ObsidianApiService obsidianApiService;
     private final EmbeddingService embeddingService;
-    private final NoteRepository noteRepository;
+    private final NoteSearchService noteSearchService;
 
     public AnalyzeResult analyzeActiveNote() {
         log.info("Starting note analysis");
@@ -27,14 +25,12 @@ public class NoteAnalysisService {
         ObsidianApiService.ActiveNote activeNote = obsidianApiService.getActiveNote();
 
         float[] embedding = embeddingService.generateEmbedding(activeNote.content());
-        String embeddingStr = VectorUtils.toVectorString(embedding);
+        List<NoteSearchHit> hits = noteSearchService.findSimilarNotes(embedding, SIMILAR_NOTES_LIMIT);
 
-        List<Note> similarNotes = noteRepository.findSimilarNotes(embeddingStr, SIMILAR_NOTES_LIMIT);
-
-        List<String> relatedNames = similarNotes.stream()
-                .filter(note -> !note.getFileName().equals(activeNote.fileName()))
+        List<String> relatedNames = hits.stream()
+                .filter(hit -> !hit.fileName().equals(activeNote.fileName()))
                 .limit(RESULT_LIMIT)
-                .map(Note::getFileName)
+                .map(NoteSearchHit::fileName)
                 .toList();
 
         log.info("Found {} related notes for {}", relatedNames.size(), activeNote.fileName());
@@ -0,0 +1,145 @@
+package com.sashkolearn.analyzeagent.domain.service;
+
+import com.sashkolearn.analyzeagent.config.NotesConfig;
+import com.sashkolearn.analyzeagent.domain.entity.Note;
+import com.sashkolearn.analyzeagent.domain.entity.NoteChunk;
+import com.sashkolearn.analyzeagent.domain.repository.NoteChunkRepository;
+import com.sashkolearn.analyzeagent.domain.repository.NoteRepository;
+import com.sashkolearn.analyzeagent.util.HashUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class NoteChunkIndexService {
+
+    private static final UUID KEYSET_START = new UUID(0L, 0L);
+
+    private final NotesConfig notesConfig;
+    private final NoteRepository noteRepository;
+    private final NoteChunkRepository noteChunkRepository;
+    private final NoteChunkerService noteChunker;
+    private final EmbeddingBatcher embeddingBatcher;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Re-chunks every note whose content changed since its chunks were built.
+     * Chunks whose text hash is unchanged keep their row (and embedding); only new
+     * passages are inserted without an embedding and picked up by {@link #generateMissingChunkEmbeddings()}.
+     * Notes are read and committed a page of notes.sync.transaction-chunk-size at a time.
+     *
+     * @return number of re-chunked notes
+     */
+    public int rebuildStaleChunks() {
+        int pageSize = Math.max(1, notesConfig.getSync().getTransactionChunkSize());
+        ChunkStats stats = new ChunkStats();
+        int rebuiltCount = 0;
+
+        UUID cursor = KEYSET_START;
+        List<Note> notes;
+        while (!(notes = noteRepository.findNotesWithStaleChunksAfter(cursor, pageSize)).isEmpty()) {
+            cursor = notes.getLast().getId();
+            List<Note> page = notes;
+            transactionTemplate.executeWithoutResult(status -> page.forEach(note -> rebuildChunks(note, stats)));
+            rebuiltCount += page.size();
+        }
+
+        log.info("Chunks rebuilt for {} notes: {} kept, {} added, {} removed",
+                rebuiltCount, stats.kept, stats.added, stats.removed);
+        return rebuiltCount;
+    }
+
+    private void rebuildChunks(Note note, ChunkStats stats) {
+        Map<String, Deque<NoteChunk>> existingByHash = new HashMap<>();
+        for (NoteChunk chunk : noteChunkRepository.findByNoteId(note.getId())) {
+            existingByHash.computeIfAbsent(chunk.getTextHash(), hash -> new ArrayDeque<>()).add(chunk);
+        }
+
+        List<NoteChunk> chunksToSave = new ArrayList<>();
+        for (NoteChunkerService.Chunk chunk : noteChunker.chunk(note.getContent())) {
+            String textHash = HashUtils.sha256Hex(chunk.content());
+            Deque<NoteChunk> sameText = existingByHash.get(textHash);
+
+            if (sameText != null && !sameText.isEmpty()) {
+                NoteChunk kept = sameText.poll();
+                kept.setChunkIndex(chunk.index());
+                kept.setHeading(chunk.heading());
+                chunksToSave.add(kept);
+                stats.kept++;
+            } else {
+                chunksToSave.add(NoteChunk.builder()
+                        .noteId(note.getId())
+                        .chunkIndex(chunk.index())
+                        .heading(chunk.heading())
+                        .content(chunk.content())
+                        .textHash(textHash)
+                        .build());
+                stats.added++;
+            }
+        }
+
+        List<NoteChunk> chunksToDelete = existingByHash.values().stream()
+                .flatMap(Deque::stream)
+                .toList();
+        noteChunkRepository.deleteAll(chunksToDelete);
+        stats.removed += chunksToDelete.size();
+
+        noteChunkRepository.saveAll(chunksToSave);
+        noteRepository.markChunked(note.getId(), note.getContentHash());
+    }
+
+    /**
+     * Embeds chunks without an embedding via {@link EmbeddingBatcher}, a window of chunks at a time;
+     * API calls run outside any transaction.
+     */
+    public int generateMissingChunkEmbeddings() {
+        int windowSize = embeddingBatcher.windowSize();
+        int processedCount = 0;
+        int foundCount = 0;
+
+        UUID cursor = KEYSET_START;
+        List<NoteChunk> window;
+        while (!(window = noteChunkRepository.findChunksWithoutEmbeddingAfter(cursor, windowSize)).isEmpty()) {
+            cursor = window.getLast().getId();
+            foundCount += window.size();
+
+            try {
+                List<float[]> embeddings = embeddingBatcher.embedAll(window.stream().map(NoteChunk::getContent).toList());
+
+                List<NoteChunk> chunks = window;
+                processedCount += transactionTemplate.execute(status -> {
+                    int written = 0;
+                    for (int j = 0; j < chunks.size(); j++) {
+                        if (embeddings.get(j) != null) {
+                            noteChunkRepository.updateEmbedding(chunks.get(j).getId(), embeddings.get(j));
+                            written++;
+                        }
+                    }
+                    return written;
+                });
+            } catch (Exception e) {
+                log.error("Failed to process chunks after id {}", window.getFirst().getId(), e);
+            }
+        }
+
+        log.info("Generated embeddings for {}/{} chunks without embeddings", processedCount, foundCount);
+        return processedCount;
+    }
+
+    private static final class ChunkStats {
+        private int kept;
+        private int added;
+        private int removed;
+    }
+}
@@ -0,0 +1,204 @@
+package com.sashkolearn.analyzeagent.domain.service;
+
+import com.sashkolearn.analyzeagent.config.NotesConfig;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+public class NoteChunkerService {
+
+    private final NotesConfig notesConfig;
+
+    /**
+     * Splits markdown into passages for chunk-level embeddings.
+     *
+     * - Sections are cut at headings (outside code fences), each passage is prefixed with its heading path
+     * - Paragraphs (blank-line separated, code fences kept whole) are packed up to notes.chunk.max-chars
+     * - Paragraphs longer than the limit are split at whitespace
+     * - Consecutive passages of the same section overlap by notes.chunk.overlap-chars
+     *
+     * @param content markdown text
+     * @return passages in document order
+     */
+    public List<Chunk> chunk(String content) {
+        if (content == null || content.isBlank()) {
+            return List.of();
+        }
+
+        int maxChars = Math.max(200, notesConfig.getChunk().getMaxChars());
+        int overlapChars = Math.min(notesConfig.getChunk().getOverlapChars(), maxChars / 2);
+
+        List<Chunk> chunks = new ArrayList<>();
+        for (Section section : splitSections(content)) {
+            List<String> passages = packParagraphs(splitParagraphs(section.body()), maxChars);
+
+            String previous = null;
+            for (String passage : passages) {
+                String text = previous == null ? passage : overlapTail(previous, overlapChars) + passage;
+                String withHeading = section.headingPath().isEmpty() ? text : section.headingPath() + "\n\n" + text;
+                chunks.add(new Chunk(chunks.size(), section.headingPath(), withHeading));
+                previous = passage;
+            }
+        }
+        return chunks;
+    }
+
+    private List<Section> splitSections(String content) {
+        List<Section> sections = new ArrayList<>();
+        String[] headingStack = new String[6];
+        StringBuilder body = new StringBuilder();
+        String currentPath = "";
+        boolean inFence = false;
+
+        for (String line : content.split("\n", -1)) {
+            String trimmed = line.trim();
+            if (trimmed.startsWith("```") || trimmed.startsWith("~~~")) {
+                inFence = !inFence;
+            }
+
+            int level = inFence ? 0 : headingLevel(trimmed);
+            if (level > 0) {
+                addSection(sections, currentPath, body);
+                body.setLength(0);
+
+                headingStack[level - 1] = trimmed.substring(level).trim();
+                for (int i = level; i < headingStack.length; i++) {
+                    headingStack[i] = null;
+                }
+                currentPath = headingPath(headingStack);
+                continue;
+            }
+
+            body.append(line).append('\n');
+        }
+        addSection(sections, currentPath, body);
+        return sections;
+    }
+
+    private void addSection(List<Section> sections, String headingPath, StringBuilder body) {
+        if (!body.toString().isBlank()) {
+            sections.add(new Section(headingPath, body.toString()));
+        }
+    }
+
+    private int headingLevel(String line) {
+        int level = 0;
+        while (level < line.length() && line.charAt(level) == '#') {
+            level++;
+        }
+        if (level == 0 || level > 6 || level >= line.length() || line.charAt(level) != ' ') {
+            return 0;
+        }
+        return level;
+    }
+
+    private String headingPath(String[] headingStack) {
+        StringBuilder path = new StringBuilder();
+        for (String heading : headingStack) {
+            if (heading == null) {
+                continue;
+            }
+            if (!path.isEmpty()) {
+                path.append(" > ");
+            }
+            path.append(heading);
+        }
+        return path.toString();
+    }
+
+    private List<String> splitParagraphs(String body) {
+        List<String> paragraphs = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean inFence = false;
+
+        for (String line : body.split("\n", -1)) {
+            String trimmed = line.trim();
+            if (trimmed.startsWith("```") || trimmed.startsWith("~~~")) {
+                inFence = !inFence;
+            }
+
+            if (!inFence && trimmed.isEmpty()) {
+                if (!current.toString().isBlank()) {
+                    paragraphs.add(current.toString().strip());
+                }
+                current.setLength(0);
+            } else {
+                current.append(line).append('\n');
+            }
+        }
+        if (!current.toString().isBlank()) {
+            paragraphs.add(current.toString().strip());
+        }
+        return paragraphs;
+    }
+
+    private List<String> packParagraphs(List<String> paragraphs, int maxChars) {
+        List<String> passages = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+
+        for (String paragraph : paragraphs) {
+            if (paragraph.length() > maxChars) {
+                if (!current.isEmpty()) {
+                    passages.add(current.toString());
+                    current.setLength(0);
+                }
+                passages.addAll(splitLongText(paragraph, maxChars));
+                continue;
+            }
+
+            if (!current.isEmpty() && current.length() + 2 + paragraph.length() > maxChars) {
+                passages.add(current.toString());
+                current.setLength(0);
+            }
+            if (!current.isEmpty()) {
+                current.append("\n\n");
+            }
+            current.append(paragraph);
+        }
+        if (!current.isEmpty()) {
+            passages.add(current.toString());
+        }
+        return passages;
+    }
+
+    private List<String> splitLongText(String text, int maxChars) {
+        List<String> parts = new ArrayList<>();
+        int start = 0;
+        while (start < text.length()) {
+            int end = Math.min(start + maxChars, text.length());
+            if (end < text.length()) {
+                int space = text.lastIndexOf(' ', end);
+                int newline = text.lastIndexOf('\n', end);
+                int boundary = Math.max(space, newline);
+                if (boundary > start + maxChars / 2) {
+                    end = boundary;
+                }
+            }
+            parts.add(text.substring(start, end).strip());
+            start = end;
+        }
+        return parts;
+    }
+
+    private String overlapTail(String previous, int overlapChars) {
+        if (overlapChars <= 0 || previous.length() <= overlapChars) {
+            return overlapChars <= 0 ? "" : previous + "\n\n";
+        }
+        int start = previous.length() - overlapChars;
+        int space = previous.indexOf(' ', start);
+        if (space > 0 && space < previous.length() - 1) {
+            start = space + 1;
+        }
+        return "…" + previous.substring(start) + "\n\n";
+    }
+
+    private record Section(String headingPath, String body) {
+    }
+
+    public record Chunk(int index, String heading, String content) {
+    }
+}
@@ -0,0 +1,43 @@
+package com.sashkolearn.analyzeagent.domain.service;
+
+import com.sashkolearn.analyzeagent.config.NotesConfig;
+import com.sashkolearn.analyzeagent.domain.model.NoteSearchHit;
+import com.sashkolearn.analyzeagent.domain.repository.NoteRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+public class NoteSearchService {
+
+    private final NoteRepository noteRepository;
+    private final NoteVectorIndexService noteVectorIndexService;
+    private final NotesConfig notesConfig;
+
+    /**
+     * Retrieval for a user query. In hybrid mode (default) vector and full-text candidates are
+     * fused in Postgres, so exact terms (names, acronyms, identifiers) are found even when the
+     * embedding misses them; in vector mode this is {@link #findSimilarNotes(float[], int)}.
+     */
+    public List<NoteSearchHit> search(String queryText, float[] queryEmbedding, int limit) {
+        NotesConfig.SearchConfig search = notesConfig.getSearch();
+        if (search.getMode() == NotesConfig.SearchConfig.Mode.HYBRID) {
+            return noteRepository.findHybridNoteHits(queryText, queryEmbedding,
+                    Math.max(limit, search.getCandidates()), search.getMinTextHits(), search.getRrfK(), limit);
+        }
+        return findSimilarNotes(queryEmbedding, limit);
+    }
+
+    /**
+     * Nearest notes by cosine distance - from the in-process index when it is enabled and
+     * warmed up, otherwise from pgvector.
+     */
+    public List<NoteSearchHit> findSimilarNotes(float[] queryEmbedding, int limit) {
+        if (noteVectorIndexService.isReady()) {
+            return noteVectorIndexService.search(queryEmbedding, limit);
+        }
+        return noteRepository.findSimilarNoteHits(queryEmbedding, limit);
+    }
+}
@@ -1,11 +1,22 @@
 package com.sashkolearn.analyzeagent.domain.service;
 
+import com.sashkolearn.analyzeagent.config.NotesConfig;
+import com.sashkolearn.analyzeagent.domain.entity.SyncRun;
 import com.sashkolearn.analyzeagent.domain.model.FullSyncResult;
+import com.sashkolearn.analyzeagent.domain.model.SyncStage;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
+import java.util.function.Function;
 
 @Service
 @RequiredArgsConstructor
@@ -15,13 +26,22 @@ public class NoteSyncOrchestrator {
     private final NoteSyncService noteSyncService;
     private final AttachmentService attachmentService;
     private final LinkService linkService;
+    private final NoteChunkIndexService noteChunkIndexService;
+    private final SyncRunJournal syncRunJournal;
+    private final AnswerCache answerCache;
+    private final LinkGraphService linkGraphService;
+    private final NotesConfig notesConfig;
+
+    // Kafka-triggered full syncs and watcher-triggered incremental syncs must not overlap
+    private final ReentrantLock syncLock = new ReentrantLock();
 
     /**
      * Performs full synchronization:
      * 1. Syncs note files
      * 2. Processes image attachments
-     * 3. Generates embeddings (enriched with attachment descriptions)
+     * 3. Generates embeddings (enriched with attachment descriptions) and passage-level chunk embeddings
      * 4. Builds graph links
+     * Progress is journaled per note; an interrupted run is resumed by the next one.
      *
      * @param progressCallback callback for sending progress to Telegram
      * @return synchronization result
@@ -29,58 +49,217 @@ public class NoteSyncOrchestrator {
     public FullSyncResult performFullSync(Consumer<String> progressCallback) {
         log.info("Starting full notes synchronization");
 
+        syncLock.lock();
+        SyncRun run = null;
         try {
-
+            run = startRun(progressCallback);
             progressCallback.accept("📁 1/4 сканую нотатки...");
-            NoteSyncService.SyncResult syncResult = noteSyncService.syncNotes();
-            progressCallback.accept(
-                String.format("📁 1/4 проскановано: %d файлів (%d нові, %d апдейтнуті, %d видалені)",
-                    syncResult.totalFiles(), syncResult.newNotes(), syncResult.updatedNotes(), syncResult.deletedNotes())
-            );
-
-            progressCallback.accept("🖼️ 2/4 обробляємо картинки...");
-            AttachmentService.AttachmentResult attachmentResult = attachmentService.processAttachmentsForNotes(syncResult.changedNoteIds());
-            progressCallback.accept(
-                String.format("🖼️ 2/4 опрацьовано %d картинок (%d скіпнуто, %d помилок)",
-                    attachmentResult.processed(), attachmentResult.skipped(), attachmentResult.errors())
-            );
-
-            progressCallback.accept("🤖 3/4 генеруємо вектори...");
-            int embeddingsGenerated = noteSyncService.generateMissingEmbeddings();
-            progressCallback.accept(
-                String.format("🤖 3/4 згенеровано %d векторів", embeddingsGenerated)
-            );
-
-            progressCallback.accept("🔗 4/4 будуємо wikilink граф...");
-            LinkService.LinkBuildResult linkResult = linkService.buildLinksForChangedNotes(syncResult.changedNoteIds());
-            progressCallback.accept(
-                String.format("🔗 4/4 оновлені лінки для %d нотаток (%d лінків, %d поламані)",
-                    syncResult.changedNoteIds().size(), linkResult.totalLinks(), linkResult.brokenLinks())
-            );
-
-            FullSyncResult result = new FullSyncResult(
-                new FullSyncResult.SyncStats(
-                    syncResult.totalFiles(),
-                    syncResult.newNotes(),
-                    syncResult.updatedNotes(),
-                    syncResult.skippedNotes(),
-                    syncResult.deletedNotes()
-                ),
-                embeddingsGenerated,
-                new FullSyncResult.LinkStats(
-                    linkResult.totalNotes(),
-                    linkResult.totalLinks(),
-                    linkResult.brokenLinks()
-                )
-            );
-
-            log.info("Full sync completed successfully");
-            return result;
+            NoteSyncService.SyncResult syncResult = noteSyncService.syncNotes(run.getId());
+            return runPipeline(run, syncResult, progressCallback);
 
         } catch (Exception e) {
             log.error("Full sync failed", e);
             progressCallback.accept("❌ Error: " + e.getMessage());
             throw new RuntimeException("Full sync failed: " + e.getMessage(), e);
+        } finally {
+            finishRun(run);
+        }
+    }
+
+    /**
+     * Runs the same pipeline as {@link #performFullSync(Consumer)} but only for the given
+     * changed paths instead of walking the whole notes folder.
+     *
+     * @param changedPaths files or directories reported as changed by the watcher
+     * @param progressCallback progress sink
+     * @return synchronization result
+     */
+    public FullSyncResult performIncrementalSync(Collection<Path> changedPaths, Consumer<String> progressCallback) {
+        log.info("Starting incremental notes synchronization for {} paths", changedPaths.size());
+
+        syncLock.lock();
+        SyncRun run = null;
+        try {
+            run = startRun(progressCallback);
+            progressCallback.accept("📁 1/4 сканую змінені нотатки...");
+            NoteSyncService.SyncResult syncResult = noteSyncService.syncPaths(run.getId(), changedPaths);
+            return runPipeline(run, syncResult, progressCallback);
+
+        } catch (Exception e) {
+            log.error("Incremental sync failed", e);
+            progressCallback.accept("❌ Error: " + e.getMessage());
+            throw new RuntimeException("Incremental sync failed: " + e.getMessage(), e);
+        } finally {
+            finishRun(run);
+        }
+    }
+
+    /**
+     * Runs whether the sync succeeded or not: answers cached while it ran may be stale either way.
+     */
+    private void finishRun(SyncRun run) {
+        try {
+            if (run != null) {
+                answerCache.invalidateCreatedSince(run.getStartedAt());
+            }
+            linkGraphService.applyPendingChanges();
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    private SyncRun startRun(Consumer<String> progressCallback) {
+        SyncRun run = syncRunJournal.startOrResume();
+        if (run.getStage() != SyncStage.SCAN) {
+            progressCallback.accept("♻️ продовжуємо перервану синхронізацію (етап " + run.getStage() + ")...");
+        }
+        syncRunJournal.moveToStage(run.getId(), SyncStage.SCAN);
+        return run;
+    }
+
+    /**
+     * Stages 2-4. Notes come from the run journal rather than the scan result, so notes changed
+     * by an interrupted earlier run are processed too, and stages already committed for a note
+     * are not repeated.
+     */
+    private FullSyncResult runPipeline(SyncRun run, NoteSyncService.SyncResult syncResult, Consumer<String> progressCallback) {
+        UUID runId = run.getId();
+        progressCallback.accept(
+            String.format("📁 1/4 проскановано: %d файлів (%d нові, %d апдейтнуті, %d видалені)",
+                syncResult.totalFiles(), syncResult.newNotes(), syncResult.updatedNotes(), syncResult.deletedNotes())
+        );
+
+        syncRunJournal.moveToStage(runId, SyncStage.ATTACHMENTS);
+        progressCallback.accept("🖼️ 2/4 обробляємо картинки...");
+        List<UUID> failedNotes = new ArrayList<>();
+        AttachmentService.AttachmentResult attachmentResult = processAttachments(runId, failedNotes);
+        progressCallback.accept(
+            String.format("🖼️ 2/4 опрацьовано %d картинок (%d скіпнуто, %d помилок)",
+                attachmentResult.processed(), attachmentResult.skipped(), attachmentResult.errors())
+        );
+
+        syncRunJournal.moveToStage(runId, SyncStage.EMBEDDINGS);
+        progressCallback.accept("🤖 3/4 генеруємо вектори...");
+        int embeddingsGenerated = noteSyncService.generateMissingEmbeddings();
+        noteChunkIndexService.rebuildStaleChunks();
+        int chunkEmbeddingsGenerated = noteChunkIndexService.generateMissingChunkEmbeddings();
+        progressCallback.accept(
+            String.format("🤖 3/4 згенеровано %d векторів (%d фрагментів)", embeddingsGenerated, chunkEmbeddingsGenerated)
+        );
+
+        syncRunJournal.moveToStage(runId, SyncStage.LINKS);
+        progressCallback.accept("🔗 4/4 будуємо wikilink граф...");
+        List<UUID> linkNoteIds = syncRunJournal.findPendingLinkNotes(runId);
+        LinkService.LinkBuildResult linkResult = buildLinks(runId, linkNoteIds, failedNotes);
+        progressCallback.accept(
+            String.format("🔗 4/4 оновлені лінки для %d нотаток (%d лінків, %d поламані)",
+                linkNoteIds.size(), linkResult.totalLinks(), linkResult.brokenLinks())
+        );
+
+        if (failedNotes.isEmpty()) {
+            syncRunJournal.complete(runId);
+        } else {
+            // The run stays open; the next sync retries these notes until they run out of attempts
+            log.warn("Sync run {} left open, {} notes failed: {}", runId, failedNotes.size(), failedNotes);
+            progressCallback.accept(String.format("⚠️ %d нотаток не вдалося обробити, повторимо при наступній синхронізації", failedNotes.size()));
+        }
+
+        FullSyncResult result = new FullSyncResult(
+            new FullSyncResult.SyncStats(
+                syncResult.totalFiles(),
+                syncResult.newNotes(),
+                syncResult.updatedNotes(),
+                syncResult.skippedNotes(),
+                syncResult.deletedNotes()
+            ),
+            embeddingsGenerated,
+            new FullSyncResult.LinkStats(
+                linkResult.totalNotes(),
+                linkResult.totalLinks(),
+                linkResult.brokenLinks()
+            )
+        );
+
+        log.info("Sync completed successfully");
+        return result;
+    }
+
+    private AttachmentService.AttachmentResult processAttachments(UUID runId, List<UUID> failedNotes) {
+        int processed = 0;
+        int skipped = 0;
+        int errors = 0;
+
+        for (List<UUID> checkpoint : checkpoints(syncRunJournal.findPendingAttachmentNotes(runId))) {
+            for (AttachmentService.AttachmentResult result : runCheckpoint(runId, checkpoint,
+                    attachmentService::processAttachmentsForNotes, syncRunJournal::markAttachmentsDone, failedNotes)) {
+                processed += result.processed();
+                skipped += result.skipped();
+                errors += result.errors();
+            }
+        }
+
+        return new AttachmentService.AttachmentResult(processed, skipped, errors);
+    }
+
+    private LinkService.LinkBuildResult buildLinks(UUID runId, List<UUID> noteIds, List<UUID> failedNotes) {
+        int totalLinks = 0;
+        int brokenLinks = 0;
+
+        for (List<UUID> checkpoint : checkpoints(noteIds)) {
+            for (LinkService.LinkBuildResult result : runCheckpoint(runId, checkpoint,
+                    linkService::buildLinksForChangedNotes, syncRunJournal::markLinksDone, failedNotes)) {
+                totalLinks += result.totalLinks();
+                brokenLinks += result.brokenLinks();
+            }
+        }
+
+        return new LinkService.LinkBuildResult(noteIds.size(), totalLinks, brokenLinks);
+    }
+
+    /**
+     * Runs a per-note stage for one checkpoint and marks it done. A failing checkpoint is retried
+     * note by note so one bad note does not hold back the others; notes that still fail keep their
+     * stage pending (with the error recorded in the journal) and are added to failedNotes.
+     */
+    private <R> List<R> runCheckpoint(UUID runId, List<UUID> checkpoint, Function<List<UUID>, R> stage,
+                                      BiConsumer<UUID, Collection<UUID>> markDone, List<UUID> failedNotes) {
+        syncRunJournal.recordAttempt(runId, checkpoint);
+        try {
+            R result = stage.apply(checkpoint);
+            markDone.accept(runId, checkpoint);
+            return List.of(result);
+        } catch (RuntimeException e) {
+            if (checkpoint.size() == 1) {
+                recordFailure(runId, checkpoint.getFirst(), e, failedNotes);
+                return List.of();
+            }
+            log.warn("Checkpoint of {} notes failed, retrying note by note: {}", checkpoint.size(), e.getMessage());
+        }
+
+        List<R> results = new ArrayList<>();
+        for (UUID noteId : checkpoint) {
+            try {
+                results.add(stage.apply(List.of(noteId)));
+                markDone.accept(runId, List.of(noteId));
+            } catch (RuntimeException e) {
+                recordFailure(runId, noteId, e, failedNotes);
+            }
+        }
+        return results;
+    }
+
+    private void recordFailure(UUID runId, UUID noteId, RuntimeException e, List<UUID> failedNotes) {
+        log.error("Sync stage failed for note {}", noteId, e);
+        syncRunJournal.recordFailure(runId, noteId, e);
+        failedNotes.add(noteId);
+    }
+
+    private List<List<UUID>> checkpoints(List<UUID> noteIds) {
+        int size = Math.max(1, notesConfig.getSync().getCheckpointSize());
+        List<List<UUID>> checkpoints = new ArrayList<>();
+        for (int i = 0; i < noteIds.size(); i += size) {
+            checkpoints.add(noteIds.subList(i, Math.min(i + size, noteIds.size())));
         }
+        return checkpoints;
     }
 }
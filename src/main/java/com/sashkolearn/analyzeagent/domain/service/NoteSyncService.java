@@ -1,24 +1,42 @@
 package com.sashkolearn.analyzeagent.domain.service;
 
-import com.sashkolearn.analyzeagent.util.VectorUtils;
+import com.sashkolearn.analyzeagent.util.HashUtils;
 import com.sashkolearn.analyzeagent.config.NotesConfig;
 import com.sashkolearn.analyzeagent.domain.entity.Attachment;
 import com.sashkolearn.analyzeagent.domain.entity.Note;
+import com.sashkolearn.analyzeagent.domain.model.DeletedNote;
+import com.sashkolearn.analyzeagent.domain.model.NoteManifestEntry;
+import com.sashkolearn.analyzeagent.domain.model.NoteUpsert;
+import com.sashkolearn.analyzeagent.domain.model.NoteUpsertResult;
 import com.sashkolearn.analyzeagent.domain.repository.AttachmentRepository;
 import com.sashkolearn.analyzeagent.domain.repository.NoteRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -30,19 +48,30 @@ public class NoteSyncService {
     private final NotesConfig notesConfig;
     private final NoteRepository noteRepository;
     private final AttachmentRepository attachmentRepository;
-    private final EmbeddingService embeddingService;
+    private final EmbeddingBatcher embeddingBatcher;
+    private final SyncRunJournal syncRunJournal;
+    private final NoteVectorIndexService noteVectorIndexService;
+    private final AnswerCache answerCache;
+    private final LinkGraphService linkGraphService;
+    private final TransactionTemplate transactionTemplate;
+
+    private static final UUID KEYSET_START = new UUID(0L, 0L);
+    private static final EmbeddingPage END_OF_PAGES = new EmbeddingPage(List.of(), List.of(), List.of());
 
     /**
      * Synchronizes all markdown files from notes folder
      * Process:
      * 1. Scans folder recursively
-     * 2. Loads new/updated files into DB
+     * 2. Reads and hashes files in parallel on virtual threads (files whose mtime/size match
+     *    the manifest are not read) and loads new/updated ones into DB in batches
      * 3. Deletes records from DB if file doesn't exist on disk
      *
+     * Each write batch commits in its own transaction.
+     *
+     * @param runId sync run that changed notes are journaled under
      * @return sync result
      */
-    @Transactional
-    public SyncResult syncNotes() {
+    public SyncResult syncNotes(UUID runId) {
         log.info("Starting notes synchronization from: {}", notesConfig.getPath());
 
         Path notesPath = Paths.get(notesConfig.getPath());
@@ -58,89 +87,233 @@ public class NoteSyncService {
                 .map(path -> path.toAbsolutePath().toString())
                 .collect(Collectors.toSet());
 
-        int newNotes = 0;
-        int updatedNotes = 0;
-        int skippedNotes = 0;
-        int errorNotes = 0;
-        List<UUID> changedNoteIds = new ArrayList<>();
+        Map<String, NoteManifestEntry> manifest = loadManifest();
 
-        for (Path file : markdownFiles) {
-            try {
-                SyncActionResult actionResult = syncSingleNote(file);
-                switch (actionResult.action()) {
-                    case CREATED -> {
-                        newNotes++;
-                        changedNoteIds.add(actionResult.noteId());
-                    }
-                    case UPDATED -> {
-                        updatedNotes++;
-                        changedNoteIds.add(actionResult.noteId());
-                    }
-                    case SKIPPED -> skippedNotes++;
-                }
-            } catch (Exception e) {
-                log.error("Failed to sync note: {}", file, e);
-                errorNotes++;
-            }
-        }
+        SyncCounters counters = ingestFiles(runId, markdownFiles, manifest);
 
-        int deletedNotes = deleteNotesNotOnDisk(diskFilePaths);
+        List<DeletedNote> deleted = transactionTemplate.execute(status -> deleteNotesNotOnDisk(diskFilePaths));
+        invalidateDerivedData(deleted.stream().map(DeletedNote::id).toList());
+        int deletedNotes = deleted.size();
 
         SyncResult result = new SyncResult(
                 markdownFiles.size(),
-                newNotes,
-                updatedNotes,
-                skippedNotes,
-                errorNotes,
+                counters.newNotes,
+                counters.updatedNotes,
+                counters.skippedNotes,
+                counters.errorNotes,
                 deletedNotes,
-                changedNoteIds
+                counters.changedNoteIds
         );
 
         log.info("Sync completed: {}", result);
         return result;
     }
 
-    @Transactional
-    public int generateMissingEmbeddings() {
-        List<Note> notesWithoutEmbedding = noteRepository.findNotesWithoutEmbedding();
-        log.info("Found {} notes without embeddings", notesWithoutEmbedding.size());
+    /**
+     * Synchronizes only the given paths (used by the filesystem watcher).
+     * Existing markdown files are ingested the same way as in {@link #syncNotes(UUID)};
+     * paths that no longer exist are removed from DB, including every note under a deleted directory.
+     *
+     * @param runId sync run that changed notes are journaled under
+     * @param changedPaths files or directories reported as changed
+     * @return sync result
+     */
+    public SyncResult syncPaths(UUID runId, Collection<Path> changedPaths) {
+        log.info("Starting incremental sync for {} changed paths", changedPaths.size());
+
+        ChangedFiles changed = resolveChangedPaths(changedPaths);
+        List<Path> markdownFiles = changed.markdownFiles();
+        List<String> removedPaths = changed.removedPaths();
+
+        List<String> filePaths = markdownFiles.stream()
+                .map(path -> path.toAbsolutePath().toString())
+                .toList();
+
+        Map<String, NoteManifestEntry> manifest = filePaths.isEmpty()
+                ? Map.of()
+                : noteRepository.findManifestByFilePathIn(filePaths).stream()
+                        .collect(Collectors.toMap(NoteManifestEntry::filePath, entry -> entry));
 
-        if (notesWithoutEmbedding.isEmpty()) {
-            return 0;
+        SyncCounters counters = ingestFiles(runId, markdownFiles, manifest);
+
+        List<DeletedNote> deleted = transactionTemplate.execute(status -> {
+            List<DeletedNote> notes = new ArrayList<>();
+            for (String removedPath : removedPaths) {
+                notes.addAll(noteRepository.deleteByFilePathOrDirectory(removedPath, removedPath + File.separator));
+            }
+            return notes;
+        });
+        invalidateDerivedData(deleted.stream().map(DeletedNote::id).toList());
+        int deletedNotes = deleted.size();
+        if (deletedNotes > 0) {
+            log.info("Deleted {} notes from database", deletedNotes);
         }
 
-        int batchSize = notesConfig.getSync().getBatchSize();
-        int processedCount = 0;
+        SyncResult result = new SyncResult(
+                markdownFiles.size(),
+                counters.newNotes,
+                counters.updatedNotes,
+                counters.skippedNotes,
+                counters.errorNotes,
+                deletedNotes,
+                counters.changedNoteIds
+        );
+
+        log.info("Incremental sync completed: {}", result);
+        return result;
+    }
+
+    /**
+     * Embeds notes without an embedding as a three-stage pipeline connected by bounded queues:
+     * fetch (keyset pages + attachment enrichment) -> embed ({@link EmbeddingBatcher}) -> write.
+     * DB reads, API calls and DB writes of consecutive pages overlap, and at most a few pages
+     * are held in memory regardless of the backlog size. Each page is written in its own transaction.
+     */
+    public int generateMissingEmbeddings() {
+        int pageSize = embeddingBatcher.windowSize();
+        int depth = Math.max(1, notesConfig.getSync().getEmbeddingPipelineDepth());
+
+        BlockingQueue<EmbeddingPage> toEmbed = new ArrayBlockingQueue<>(depth);
+        BlockingQueue<EmbeddingPage> toWrite = new ArrayBlockingQueue<>(depth);
+
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            Future<?> fetcher = executor.submit(() -> {
+                fetchEmbeddingPages(pageSize, toEmbed);
+                return null;
+            });
+            Future<?> embedder = executor.submit(() -> {
+                embedPages(toEmbed, toWrite);
+                return null;
+            });
+
+            int processedCount = writeEmbeddingPages(toWrite);
+
+            // The embedder first: if it failed, nothing drains toEmbed and the fetcher may be stuck on put
+            try {
+                embedder.get();
+            } catch (ExecutionException e) {
+                fetcher.cancel(true);
+                throw e;
+            }
+            fetcher.get();
+
+            log.info("Generated embeddings for {} notes", processedCount);
+            return processedCount;
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Embedding backfill interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Embedding backfill failed: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            // Unblocks stages stuck on a full queue if a downstream stage failed
+            executor.shutdownNow();
+            executor.close();
+        }
+    }
 
-        // Process in batches to optimize OpenAI API calls
-        for (int i = 0; i < notesWithoutEmbedding.size(); i += batchSize) {
-            int end = Math.min(i + batchSize, notesWithoutEmbedding.size());
-            List<Note> batch = notesWithoutEmbedding.subList(i, end);
+    private void fetchEmbeddingPages(int pageSize, BlockingQueue<EmbeddingPage> toEmbed) throws InterruptedException {
+        try {
+            UUID cursor = KEYSET_START;
+            List<Note> notes;
+            while (!(notes = noteRepository.findNotesWithoutEmbeddingAfter(cursor, pageSize)).isEmpty()) {
+                cursor = notes.getLast().getId();
+
+                List<UUID> noteIds = notes.stream().map(Note::getId).toList();
+                Map<UUID, List<Attachment>> attachmentsByNote = attachmentRepository.findByNoteIdIn(noteIds).stream()
+                        .collect(Collectors.groupingBy(Attachment::getNoteId));
+                List<String> texts = notes.stream()
+                        .map(note -> getEnrichedContent(note, attachmentsByNote.getOrDefault(note.getId(), List.of())))
+                        .toList();
+
+                log.debug("Fetched {} notes without embeddings", notes.size());
+                toEmbed.put(new EmbeddingPage(noteIds, texts, null));
+            }
+        } catch (RuntimeException e) {
+            // Let downstream stages drain and finish; interruption skips this, the pipeline is being torn down
+            toEmbed.put(END_OF_PAGES);
+            throw e;
+        }
+        toEmbed.put(END_OF_PAGES);
+    }
 
-            log.info("Processing batch {}/{} (size: {})",
-                    (i / batchSize) + 1,
-                    (notesWithoutEmbedding.size() + batchSize - 1) / batchSize,
-                    batch.size()
-            );
+    private void embedPages(BlockingQueue<EmbeddingPage> toEmbed, BlockingQueue<EmbeddingPage> toWrite) throws InterruptedException {
+        try {
+            EmbeddingPage page;
+            while ((page = toEmbed.take()) != END_OF_PAGES) {
+                try {
+                    toWrite.put(new EmbeddingPage(page.noteIds(), null, embeddingBatcher.embedAll(page.texts())));
+                } catch (IllegalStateException e) {
+                    log.error("Failed to embed page of {} notes", page.noteIds().size(), e);
+                }
+            }
+        } catch (RuntimeException e) {
+            toWrite.put(END_OF_PAGES);
+            throw e;
+        }
+        toWrite.put(END_OF_PAGES);
+    }
 
+    private int writeEmbeddingPages(BlockingQueue<EmbeddingPage> toWrite) throws InterruptedException {
+        int processedCount = 0;
+        EmbeddingPage page;
+        while ((page = toWrite.take()) != END_OF_PAGES) {
+            EmbeddingPage written = page;
             try {
-                processBatchEmbeddings(batch);
-                processedCount += batch.size();
+                // Texts that failed on their own come back as null and stay without embedding
+                processedCount += transactionTemplate.execute(status -> {
+                    int count = 0;
+                    for (int i = 0; i < written.noteIds().size(); i++) {
+                        float[] embedding = written.embeddings().get(i);
+                        if (embedding != null) {
+                            noteRepository.updateEmbedding(written.noteIds().get(i), embedding);
+                            count++;
+                        }
+                    }
+                    return count;
+                });
+                noteVectorIndexService.refresh(written.noteIds());
+                answerCache.invalidateNear(written.noteIds());
+                log.info("Stored embeddings: {} so far", processedCount);
             } catch (Exception e) {
-                log.error("Failed to process batch starting at index {}", i, e);
+                log.error("Failed to store embeddings for {} notes", written.noteIds().size(), e);
             }
         }
-
-        log.info("Generated embeddings for {} notes", processedCount);
         return processedCount;
     }
 
-    private List<Path> findAllMarkdownFiles(Path rootPath) {
+    /**
+     * Expands changed directories into their markdown files and splits off paths that no longer exist.
+     * A new folder and a file created inside it are often reported together; files are deduplicated by
+     * absolute path, since the same note twice in one upsert batch fails the statement.
+     */
+    static ChangedFiles resolveChangedPaths(Collection<Path> changedPaths) {
+        Map<String, Path> markdownFiles = new LinkedHashMap<>();
+        List<String> removedPaths = new ArrayList<>();
+
+        for (Path path : changedPaths) {
+            if (Files.isDirectory(path)) {
+                for (Path file : findAllMarkdownFiles(path)) {
+                    markdownFiles.putIfAbsent(file.toAbsolutePath().normalize().toString(), file);
+                }
+            } else if (Files.isRegularFile(path)) {
+                if (isMarkdownFile(path)) {
+                    markdownFiles.putIfAbsent(path.toAbsolutePath().normalize().toString(), path);
+                }
+            } else {
+                removedPaths.add(path.toAbsolutePath().toString());
+            }
+        }
+        return new ChangedFiles(List.copyOf(markdownFiles.values()), removedPaths);
+    }
+
+    private static List<Path> findAllMarkdownFiles(Path rootPath) {
         List<Path> markdownFiles = new ArrayList<>();
 
         try (Stream<Path> paths = Files.walk(rootPath)) {
             paths.filter(Files::isRegularFile)
-                    .filter(path -> path.toString().toLowerCase().endsWith(".md"))
+                    .filter(NoteSyncService::isMarkdownFile)
                     .forEach(markdownFiles::add);
         } catch (IOException e) {
             log.error("Failed to walk directory tree: {}", rootPath, e);
@@ -150,87 +323,188 @@ public class NoteSyncService {
         return markdownFiles;
     }
 
-    private SyncActionResult syncSingleNote(Path file) throws IOException {
+    private static boolean isMarkdownFile(Path path) {
+        return path.toString().toLowerCase().endsWith(".md");
+    }
+
+    private Map<String, NoteManifestEntry> loadManifest() {
+        Map<String, NoteManifestEntry> manifest = noteRepository.findManifest().stream()
+                .collect(Collectors.toMap(NoteManifestEntry::filePath, entry -> entry));
+        log.debug("Loaded manifest with {} entries", manifest.size());
+        return manifest;
+    }
+
+    /**
+     * Fans file stat/read/hash out over a bounded number of virtual threads and feeds the
+     * results to a single writer, the calling thread. It runs outside any transaction and commits
+     * every notes.sync.write-batch-size files through {@link #writeBatch}, each batch on its own.
+     */
+    private SyncCounters ingestFiles(UUID runId, List<Path> files, Map<String, NoteManifestEntry> manifest) {
+        int parallelism = Math.max(1, notesConfig.getSync().getIngestParallelism());
+        int batchSize = Math.max(1, notesConfig.getSync().getWriteBatchSize());
+
+        Queue<Path> pendingFiles = new ConcurrentLinkedQueue<>(files);
+        BlockingQueue<IngestedFile> ingested = new ArrayBlockingQueue<>(Math.max(batchSize, parallelism) * 2);
+        SyncCounters counters = new SyncCounters();
+
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            for (int i = 0; i < parallelism; i++) {
+                executor.submit(() -> {
+                    Path file;
+                    while ((file = pendingFiles.poll()) != null) {
+                        ingested.put(ingestFile(file, manifest));
+                    }
+                    return null;
+                });
+            }
+
+            List<IngestedFile> batch = new ArrayList<>(batchSize);
+            for (int received = 0; received < files.size(); received++) {
+                IngestedFile file = ingested.take();
+                switch (file.status()) {
+                    case UNCHANGED -> counters.skippedNotes++;
+                    case FAILED -> counters.errorNotes++;
+                    case TOUCHED, CHANGED -> {
+                        batch.add(file);
+                        if (batch.size() >= batchSize) {
+                            writeBatch(runId, batch, counters);
+                            batch.clear();
+                        }
+                    }
+                }
+            }
+            writeBatch(runId, batch, counters);
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Notes ingestion interrupted", e);
+        } finally {
+            // Unblocks workers stuck on a full queue if the writer failed
+            executor.shutdownNow();
+            executor.close();
+        }
+
+        return counters;
+    }
+
+    /**
+     * Stat, read and hash a single file. Never throws - failures are reported as FAILED
+     * so the writer always receives exactly one result per file.
+     */
+    private IngestedFile ingestFile(Path file, Map<String, NoteManifestEntry> manifest) {
         String absolutePath = file.toAbsolutePath().toString();
         String fileName = file.getFileName().toString();
-        String content = Files.readString(file);
-        long fileSize = Files.size(file);
-
-        var existingNote = noteRepository.findByFilePath(absolutePath);
 
-        if (existingNote.isPresent()) {
-            Note note = existingNote.get();
+        try {
+            BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+            long fileSize = attrs.size();
+            long fileMtime = attrs.lastModifiedTime().toMillis();
 
-            if (note.getFileSize().equals(fileSize)) {
+            NoteManifestEntry manifestEntry = manifest.get(absolutePath);
+            if (manifestEntry != null && manifestEntry.matchesStat(fileSize, fileMtime)) {
                 log.debug("Note unchanged, skipping: {}", fileName);
-                return new SyncActionResult(SyncAction.SKIPPED, null);
+                return new IngestedFile(IngestStatus.UNCHANGED, absolutePath, fileName, fileSize, fileMtime, null, null);
             }
 
-            note.setContent(content);
-            note.setFileSize(fileSize);
-            noteRepository.save(note);
-            noteRepository.clearEmbedding(note.getId());
-
-            log.info("Updated note: {}", fileName);
-            return new SyncActionResult(SyncAction.UPDATED, note.getId());
-        } else {
-
-            Note newNote = Note.builder()
-                    .fileName(fileName)
-                    .filePath(absolutePath)
-                    .content(content)
-                    .fileSize(fileSize)
-                    .build();
-
-            noteRepository.save(newNote);
-            log.info("Created new note: {}", fileName);
-            return new SyncActionResult(SyncAction.CREATED, newNote.getId());
+            String content = Files.readString(file);
+            String contentHash = HashUtils.sha256Hex(content);
+
+            if (manifestEntry != null && contentHash.equals(manifestEntry.contentHash())) {
+                return new IngestedFile(IngestStatus.TOUCHED, absolutePath, fileName, fileSize, fileMtime, null, contentHash);
+            }
+
+            return new IngestedFile(IngestStatus.CHANGED, absolutePath, fileName, fileSize, fileMtime, content, contentHash);
+
+        } catch (Exception e) {
+            log.error("Failed to sync note: {}", file, e);
+            return new IngestedFile(IngestStatus.FAILED, absolutePath, fileName, 0, 0, null, null);
         }
     }
 
-    private int deleteNotesNotOnDisk(Set<String> diskFilePaths) {
-        List<Note> allNotes = noteRepository.findAll();
-        List<Note> notesToDelete = new ArrayList<>();
+    /**
+     * Writes one batch in its own transaction with two set-based statements: a stat refresh for
+     * touched files and a multi-row upsert (which also clears embeddings of updated notes) for changed ones.
+     */
+    private void writeBatch(UUID runId, List<IngestedFile> batch, SyncCounters counters) {
+        if (batch.isEmpty()) {
+            return;
+        }
 
-        for (Note note : allNotes) {
-            if (!diskFilePaths.contains(note.getFilePath())) {
-                notesToDelete.add(note);
-                log.info("Note file no longer exists, marking for deletion: {}", note.getFileName());
+        List<NoteManifestEntry> touchedFiles = new ArrayList<>();
+        List<NoteUpsert> changedFiles = new ArrayList<>();
+        Map<String, String> fileNamesByPath = new HashMap<>();
+
+        for (IngestedFile file : batch) {
+            if (file.status() == IngestStatus.TOUCHED) {
+                // Touched but not edited - only refresh the stat so the next sync skips it without reading
+                touchedFiles.add(new NoteManifestEntry(file.absolutePath(), file.fileMtime(), file.fileSize(), file.contentHash()));
+                log.debug("Note content unchanged, refreshing stat: {}", file.fileName());
+            } else {
+                changedFiles.add(new NoteUpsert(
+                        file.fileName(),
+                        file.absolutePath(),
+                        file.content(),
+                        file.fileSize(),
+                        file.fileMtime(),
+                        file.contentHash()
+                ));
+                fileNamesByPath.put(file.absolutePath(), file.fileName());
             }
         }
 
-        if (!notesToDelete.isEmpty()) {
-            noteRepository.deleteAll(notesToDelete);
-            log.info("Deleted {} notes from database", notesToDelete.size());
+        List<NoteUpsertResult> written = transactionTemplate.execute(status -> {
+            noteRepository.updateFileStats(touchedFiles);
+            List<NoteUpsertResult> upserted = noteRepository.upsertNotes(changedFiles);
+            syncRunJournal.addChangedNotes(runId, upserted.stream().map(NoteUpsertResult::id).toList());
+            return upserted;
+        });
+        invalidateDerivedData(written.stream().map(NoteUpsertResult::id).toList());
+        counters.skippedNotes += touchedFiles.size();
+        for (NoteUpsertResult result : written) {
+            if (result.inserted()) {
+                counters.newNotes++;
+                log.info("Created new note: {}", fileNamesByPath.get(result.filePath()));
+            } else {
+                counters.updatedNotes++;
+                log.info("Updated note: {}", fileNamesByPath.get(result.filePath()));
+            }
+            counters.changedNoteIds.add(result.id());
         }
-
-        return notesToDelete.size();
+        // Rows whose hash already matched (e.g. changed concurrently by another sync) are not returned
+        counters.skippedNotes += changedFiles.size() - written.size();
     }
 
-    private void processBatchEmbeddings(List<Note> notes) {
-        List<String> texts = notes.stream()
-                .map(this::getEnrichedContent)
-                .toList();
+    /**
+     * Changed or deleted notes leave the in-process vector index (an updated note lost its
+     * embedding in the upsert) and invalidate cached answers built from them; links of
+     * deleted notes are gone by cascade, so they are marked stale in the link graph.
+     */
+    private void invalidateDerivedData(List<UUID> noteIds) {
+        noteVectorIndexService.remove(noteIds);
+        answerCache.invalidate(noteIds);
+        linkGraphService.markStale(noteIds);
+    }
 
-        // Generate embeddings in one API call
-        List<float[]> embeddings = embeddingService.generateEmbeddingsBatch(texts);
+    private List<DeletedNote> deleteNotesNotOnDisk(Set<String> diskFilePaths) {
+        List<DeletedNote> deletedNotes = noteRepository.deleteNotesNotIn(diskFilePaths);
 
-        for (int i = 0; i < notes.size(); i++) {
-            Note note = notes.get(i);
-            float[] embedding = embeddings.get(i);
-            String embeddingStr = VectorUtils.toVectorString(embedding);
-            noteRepository.updateEmbedding(note.getId(), embeddingStr);
-            log.debug("Generated embedding for: {}", note.getFileName());
+        for (DeletedNote note : deletedNotes) {
+            log.info("Note file no longer exists, deleted: {}", note.fileName());
+        }
+        if (!deletedNotes.isEmpty()) {
+            log.info("Deleted {} notes from database", deletedNotes.size());
         }
+
+        return deletedNotes;
     }
 
     /**
      * Enriches note content with attachment descriptions for better semantic embeddings.
      */
-    private String getEnrichedContent(Note note) {
+    private String getEnrichedContent(Note note, List<Attachment> attachments) {
         StringBuilder enriched = new StringBuilder(note.getContent());
 
-        List<Attachment> attachments = attachmentRepository.findByNoteId(note.getId());
         for (Attachment att : attachments) {
             if (att.getDescription() != null && !att.getDescription().isEmpty()) {
                 enriched.append("\n\n[Image: ").append(att.getFileName()).append("]\n");
@@ -241,11 +515,36 @@ public class NoteSyncService {
         return enriched.toString();
     }
 
-    private enum SyncAction {
-        CREATED, UPDATED, SKIPPED
+    /**
+     * Unit of work passed between embedding pipeline stages: texts after fetch, embeddings after embed.
+     */
+    record ChangedFiles(List<Path> markdownFiles, List<String> removedPaths) {
+    }
+
+    private record EmbeddingPage(List<UUID> noteIds, List<String> texts, List<float[]> embeddings) {
+    }
+
+    private enum IngestStatus {
+        UNCHANGED, TOUCHED, CHANGED, FAILED
+    }
+
+    private record IngestedFile(
+            IngestStatus status,
+            String absolutePath,
+            String fileName,
+            long fileSize,
+            long fileMtime,
+            String content,
+            String contentHash
+    ) {
     }
 
-    private record SyncActionResult(SyncAction action, UUID noteId) {
+    private static final class SyncCounters {
+        private int newNotes;
+        private int updatedNotes;
+        private int skippedNotes;
+        private int errorNotes;
+        private final List<UUID> changedNoteIds = new ArrayList<>();
     }
 
     public record SyncResult(
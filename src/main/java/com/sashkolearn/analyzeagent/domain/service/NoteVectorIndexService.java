@@ -0,0 +1,170 @@
+package com.sashkolearn.analyzeagent.domain.service;
+
+import com.sashkolearn.analyzeagent.config.NotesConfig;
+import com.sashkolearn.analyzeagent.domain.model.NoteEmbedding;
+import com.sashkolearn.analyzeagent.domain.model.NoteSearchHit;
+import com.sashkolearn.analyzeagent.domain.repository.NoteRepository;
+import com.sashkolearn.analyzeagent.infrastructure.vector.ExactVectorIndex;
+import com.sashkolearn.analyzeagent.infrastructure.vector.HnswVectorIndex;
+import com.sashkolearn.analyzeagent.infrastructure.vector.VectorIndex;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Optional in-process copy of note embeddings (notes.vector-index.engine = exact | hnsw).
+ * Warmed from the notes table at startup and kept current by the sync pipeline;
+ * with engine = pgvector every method is a no-op and search stays in the database.
+ */
+@Service
+@Slf4j
+public class NoteVectorIndexService {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final NoteRepository noteRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final NotesConfig.VectorIndexConfig config;
+    private final VectorIndex index;
+    private final Map<UUID, IndexedNote> notesById = new ConcurrentHashMap<>();
+    // Notes refreshed or removed while warm-up streams the table; its cursor may re-add stale copies of them
+    private final Set<UUID> changedDuringWarmUp = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean warmingUp;
+    private volatile boolean ready;
+
+    public NoteVectorIndexService(
+            NoteRepository noteRepository,
+            TransactionTemplate transactionTemplate,
+            NotesConfig notesConfig,
+            @Value("${spring.ai.openai.embedding.options.dimensions}") int dimensions
+    ) {
+        this.noteRepository = noteRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.config = notesConfig.getVectorIndex();
+        this.index = switch (config.getEngine()) {
+            case PGVECTOR -> null;
+            case EXACT -> new ExactVectorIndex(dimensions, INITIAL_CAPACITY);
+            case HNSW -> new HnswVectorIndex(dimensions, INITIAL_CAPACITY,
+                    config.getHnswM(), config.getHnswEfConstruction(), config.getHnswEfSearch());
+        };
+    }
+
+    /**
+     * True once the index is enabled and fully loaded; until then searches go to pgvector.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (index == null) {
+            return;
+        }
+
+        warmingUp = true;
+        Thread.ofVirtual().name("vector-index-warmup").start(() -> {
+            long start = System.currentTimeMillis();
+            try {
+                // Cursor-based streaming needs a transaction on PostgreSQL
+                transactionTemplate.executeWithoutResult(status ->
+                        noteRepository.forEachEmbedding(config.getWarmupFetchSize(), this::add));
+                finishWarmUp();
+                log.info("Vector index ({}) warmed up with {} notes in {} ms",
+                        config.getEngine(), index.size(), System.currentTimeMillis() - start);
+            } catch (Exception e) {
+                warmingUp = false;
+                changedDuringWarmUp.clear();
+                log.error("Vector index warm-up failed, similarity search stays on pgvector", e);
+            }
+        });
+    }
+
+    /**
+     * Reloads the notes changed while the cursor was streaming, so neither a removed note nor an old
+     * embedding read before the change survives; holding the lock keeps sync updates from interleaving.
+     */
+    private synchronized void finishWarmUp() {
+        warmingUp = false;
+        if (!changedDuringWarmUp.isEmpty()) {
+            List<UUID> changed = List.copyOf(changedDuringWarmUp);
+            changedDuringWarmUp.clear();
+            log.info("Reloading {} notes changed during vector index warm-up", changed.size());
+            refresh(changed);
+        }
+        ready = true;
+    }
+
+    /**
+     * Reloads the given notes from the database: stored embeddings are (re)indexed,
+     * notes without an embedding or no longer existing are dropped.
+     */
+    public synchronized void refresh(Collection<UUID> noteIds) {
+        if (index == null || noteIds.isEmpty()) {
+            return;
+        }
+        if (warmingUp) {
+            changedDuringWarmUp.addAll(noteIds);
+        }
+
+        Set<UUID> missing = new HashSet<>(noteIds);
+        for (NoteEmbedding note : noteRepository.findEmbeddingsByIdIn(noteIds)) {
+            add(note);
+            missing.remove(note.id());
+        }
+        remove(missing);
+    }
+
+    public synchronized void remove(Collection<UUID> noteIds) {
+        if (index == null) {
+            return;
+        }
+        if (warmingUp) {
+            changedDuringWarmUp.addAll(noteIds);
+        }
+        for (UUID noteId : noteIds) {
+            index.remove(noteId);
+            notesById.remove(noteId);
+        }
+    }
+
+    /**
+     * @return nearest notes with cosine distance, same semantics as the pgvector search
+     */
+    public List<NoteSearchHit> search(float[] queryEmbedding, int limit) {
+        if (index == null) {
+            throw new IllegalStateException("Vector index is disabled");
+        }
+
+        return index.search(queryEmbedding, limit).stream()
+                .map(match -> {
+                    IndexedNote note = notesById.get(match.id());
+                    return note == null
+                            ? null
+                            : new NoteSearchHit(match.id(), note.fileName(), note.filePath(), 1 - match.similarity());
+                })
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    private void add(NoteEmbedding note) {
+        notesById.put(note.id(), new IndexedNote(note.fileName(), note.filePath()));
+        index.upsert(note.id(), note.embedding());
+    }
+
+    private record IndexedNote(String fileName, String filePath) {
+    }
+}
@@ -0,0 +1,75 @@
+package com.sashkolearn.analyzeagent.domain.service;
+
+import com.sashkolearn.analyzeagent.config.PromptCacheConfig;
+import com.sashkolearn.analyzeagent.util.TokenUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.anthropic.AnthropicChatOptions;
+import org.springframework.ai.anthropic.api.AnthropicApi;
+import org.springframework.ai.anthropic.api.AnthropicCacheOptions;
+import org.springframework.ai.anthropic.api.AnthropicCacheStrategy;
+import org.springframework.ai.chat.messages.MessageType;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Anthropic prompt caching: callers put the static part of a prompt into the system message,
+ * which gets a cache breakpoint, and report responses back so cache hits are visible in logs.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PromptCaching {
+
+    private final PromptCacheConfig promptCacheConfig;
+
+    private final AtomicLong cacheReadTokens = new AtomicLong();
+    private final AtomicLong cacheWriteTokens = new AtomicLong();
+    private final AtomicLong uncachedInputTokens = new AtomicLong();
+
+    /**
+     * Chat options marking the system message as a cacheable prefix. A system message shorter than
+     * anthropic.prompt-cache.min-tokens gets no breakpoint, since Anthropic would not cache it anyway.
+     */
+    public AnthropicChatOptions systemPromptCached() {
+        if (!promptCacheConfig.isEnabled()) {
+            return AnthropicChatOptions.builder().build();
+        }
+
+        return AnthropicChatOptions.builder()
+                .cacheOptions(AnthropicCacheOptions.builder()
+                        .strategy(AnthropicCacheStrategy.SYSTEM_ONLY)
+                        .messageTypeTtl(MessageType.SYSTEM, promptCacheConfig.getTtl())
+                        .messageTypeMinContentLength(MessageType.SYSTEM, promptCacheConfig.getMinTokens())
+                        .contentLengthFunction(TokenUtils::countTokens)
+                        .build())
+                .build();
+    }
+
+    /**
+     * Logs prompt cache usage of one call together with running totals since startup.
+     */
+    public void recordUsage(String operation, ChatResponse response) {
+        if (response == null || response.getMetadata() == null || response.getMetadata().getUsage() == null
+                || !(response.getMetadata().getUsage().getNativeUsage() instanceof AnthropicApi.Usage usage)) {
+            return;
+        }
+
+        long read = valueOf(usage.cacheReadInputTokens());
+        long written = valueOf(usage.cacheCreationInputTokens());
+        long uncached = valueOf(usage.inputTokens());
+
+        long totalRead = cacheReadTokens.addAndGet(read);
+        cacheWriteTokens.addAndGet(written);
+        long totalInput = totalRead + cacheWriteTokens.get() + uncachedInputTokens.addAndGet(uncached);
+
+        log.info("Prompt cache [{}]: {} tokens read, {} written, {} uncached (total hit rate {}%)",
+                operation, read, written, uncached, totalInput == 0 ? 0 : totalRead * 100 / totalInput);
+    }
+
+    private static long valueOf(Integer tokens) {
+        return tokens == null ? 0 : tokens;
+    }
+}
@@ -1,20 +1,25 @@
 package com.sashkolearn.analyzeagent.domain.service;
 
+import com.sashkolearn.analyzeagent.config.RagConfig;
 import com.sashkolearn.analyzeagent.domain.entity.Attachment;
 import com.sashkolearn.analyzeagent.domain.entity.Note;
+import com.sashkolearn.analyzeagent.domain.entity.NoteChunk;
+import com.sashkolearn.analyzeagent.domain.model.NoteSearchHit;
 import com.sashkolearn.analyzeagent.domain.repository.AttachmentRepository;
+import com.sashkolearn.analyzeagent.domain.repository.NoteChunkRepository;
 import com.sashkolearn.analyzeagent.domain.repository.NoteRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.anthropic.AnthropicChatModel;
 import org.springframework.ai.chat.messages.SystemMessage;
 import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.chat.model.ChatResponse;
 import org.springframework.ai.chat.prompt.Prompt;
 import org.springframework.stereotype.Service;
 
-import com.sashkolearn.analyzeagent.util.VectorUtils;
 
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Service
@@ -24,13 +29,20 @@ public class RagService {
 
     private final EmbeddingService embeddingService;
     private final NoteRepository noteRepository;
+    private final NoteSearchService noteSearchService;
     private final LinkService linkService;
     private final AttachmentRepository attachmentRepository;
+    private final NoteChunkRepository noteChunkRepository;
     private final AnthropicChatModel anthropicChatModel;
+    private final RagConfig ragConfig;
+    private final ContextPacker contextPacker;
+    private final AnswerCache answerCache;
 
     private static final int TOP_SIMILAR_NOTES = 5;
     private static final int MAX_PHOTOS = 3;
+    private static final int MAX_PASSAGES = 12;
 
+    // Static instructions; at ~300 tokens they are far below Anthropic's 1024-token minimum for a cache breakpoint, so not cached
     private static final String SYSTEM_PROMPT = """
             You are a knowledgeable assistant that answers questions based ONLY on the provided context from the user's personal notes.
             
@@ -53,12 +65,25 @@ public class RagService {
             """;
 
     public RagResult answerQuestion(String question) {
+        return answerQuestion(question, partialAnswer -> {
+        });
+    }
+
+    /**
+     * @param partialAnswerCallback receives the answer generated so far, coalesced to at most one
+     *                              call per rag.stream.flush-interval-ms (not called when streaming is disabled)
+     */
+    public RagResult answerQuestion(String question, Consumer<String> partialAnswerCallback) {
         log.info("RAG pipeline started for question: {}", question);
 
         float[] questionEmbedding = embeddingService.generateEmbedding(question);
-        String embeddingStr = VectorUtils.toVectorString(questionEmbedding);
 
-        List<Note> similarNotes = noteRepository.findSimilarNotes(embeddingStr, TOP_SIMILAR_NOTES);
+        Optional<RagResult> cached = answerCache.find(questionEmbedding);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+
+        List<NoteSearchHit> similarNotes = noteSearchService.search(question, questionEmbedding, TOP_SIMILAR_NOTES);
         log.info("Found {} similar notes", similarNotes.size());
 
         if (similarNotes.isEmpty()) {
@@ -71,35 +96,38 @@ public class RagService {
 
         Set<UUID> contextNoteIds = new LinkedHashSet<>();
         Set<UUID> directSimilarIds = new LinkedHashSet<>();
-        for (Note note : similarNotes) {
-            directSimilarIds.add(note.getId());
-            contextNoteIds.add(note.getId());
+        for (NoteSearchHit hit : similarNotes) {
+            log.debug("Similar note {} (distance {})", hit.fileName(), hit.distance());
+            directSimilarIds.add(hit.id());
+            contextNoteIds.add(hit.id());
         }
 
-        for (Note note : similarNotes) {
-            List<Note> related = linkService.findRelatedNotes(note);
-            for (Note relatedNote : related) {
-                contextNoteIds.add(relatedNote.getId());
-            }
-        }
+        // Context is loaded with a constant number of set-based queries: neighbours, notes, attachments, passages
+        contextNoteIds.addAll(linkService.findRelatedNoteIds(List.copyOf(directSimilarIds)));
 
+        Map<UUID, Note> notesById = noteRepository.findAllById(contextNoteIds).stream()
+                .collect(Collectors.toMap(Note::getId, note -> note));
         List<Note> contextNotes = contextNoteIds.stream()
-                .map(noteRepository::findById)
-                .filter(Optional::isPresent)
-                .map(Optional::get)
+                .map(notesById::get)
+                .filter(Objects::nonNull)
                 .toList();
 
         log.info("Context expanded to {} notes (from {} similar)", contextNotes.size(), similarNotes.size());
 
-        List<Attachment> allAttachments = new ArrayList<>();
-        for (Note note : contextNotes) {
-            List<Attachment> noteAttachments = attachmentRepository.findByNoteId(note.getId());
-            allAttachments.addAll(noteAttachments);
-        }
+        List<Attachment> allAttachments = attachmentRepository.findByNoteIdIn(notesById.keySet());
         log.info("Found {} attachments across context notes", allAttachments.size());
 
-        String contextBlock = buildContextBlock(contextNotes, allAttachments);
-        String answer = callLlm(question, contextBlock);
+        // Direct hits contribute only their best matching passages instead of the whole note
+        Map<UUID, List<NoteChunk>> passagesByNote = noteChunkRepository
+                .findSimilarChunksInNotes(questionEmbedding, directSimilarIds, MAX_PASSAGES).stream()
+                .sorted(Comparator.comparing(NoteChunk::getChunkIndex))
+                .collect(Collectors.groupingBy(NoteChunk::getNoteId));
+        log.info("Found {} relevant passages in {} notes",
+                passagesByNote.values().stream().mapToInt(List::size).sum(), passagesByNote.size());
+
+        ContextPacker.PackedContext context = contextPacker.pack(
+                buildSections(contextNotes, directSimilarIds, questionEmbedding, passagesByNote, allAttachments));
+        String answer = callLlm(question, context.text(), partialAnswerCallback);
 
         List<String> relevantAttachmentPaths = allAttachments.stream()
                 .filter(a -> directSimilarIds.contains(a.getNoteId()))
@@ -108,25 +136,46 @@ public class RagService {
                 .toList();
 
         List<String> sourceFiles = similarNotes.stream()
-                .map(Note::getFileName)
+                .map(NoteSearchHit::fileName)
                 .toList();
         String fullAnswer = appendSources(answer, sourceFiles);
 
         log.info("RAG pipeline completed. Answer length: {}, sources: {}, attachments: {}",
                 fullAnswer.length(), sourceFiles.size(), relevantAttachmentPaths.size());
 
-        return new RagResult(fullAnswer, sourceFiles, relevantAttachmentPaths);
+        RagResult result = new RagResult(fullAnswer, sourceFiles, relevantAttachmentPaths);
+        answerCache.put(question, questionEmbedding, result, notesById.keySet());
+        return result;
     }
 
-    private String buildContextBlock(List<Note> notes, List<Attachment> attachments) {
-        StringBuilder sb = new StringBuilder();
-
+    /**
+     * One section per context note, ranked for {@link ContextPacker}: direct hits in search order,
+     * then graph neighbours by similarity of their embedding to the question.
+     */
+    private List<ContextPacker.Section> buildSections(List<Note> notes, Set<UUID> directSimilarIds, float[] questionEmbedding,
+                                                      Map<UUID, List<NoteChunk>> passagesByNote, List<Attachment> attachments) {
         Map<UUID, List<Attachment>> attachmentsByNote = attachments.stream()
                 .collect(Collectors.groupingBy(Attachment::getNoteId));
 
-        for (Note note : notes) {
-            sb.append("--- File: ").append(note.getFileName()).append(" ---\n");
-            sb.append(note.getContent()).append("\n");
+        List<Note> neighbours = notes.stream()
+                .filter(note -> !directSimilarIds.contains(note.getId()))
+                .sorted(Comparator.comparingDouble((Note note) -> similarity(note.getEmbedding(), questionEmbedding)).reversed())
+                .toList();
+        List<Note> ranked = new ArrayList<>(notes.stream().filter(note -> directSimilarIds.contains(note.getId())).toList());
+        ranked.addAll(neighbours);
+
+        List<ContextPacker.Section> sections = new ArrayList<>();
+        for (Note note : ranked) {
+            StringBuilder sb = new StringBuilder();
+
+            List<NoteChunk> passages = passagesByNote.get(note.getId());
+            if (passages != null) {
+                for (NoteChunk passage : passages) {
+                    sb.append("[...]\n").append(passage.getContent()).append("\n");
+                }
+            } else {
+                sb.append(note.getContent()).append("\n");
+            }
 
             List<Attachment> noteAttachments = attachmentsByNote.getOrDefault(note.getId(), List.of());
             if (!noteAttachments.isEmpty()) {
@@ -137,13 +186,29 @@ public class RagService {
                     }
                 }
             }
-            sb.append("\n");
+
+            sections.add(new ContextPacker.Section(note.getFileName(), sb.toString()));
         }
 
-        return sb.toString();
+        return sections;
     }
 
-    private String callLlm(String question, String context) {
+    private static double similarity(float[] embedding, float[] query) {
+        if (embedding == null || embedding.length != query.length) {
+            return -1;
+        }
+        double dot = 0;
+        double embeddingNorm = 0;
+        double queryNorm = 0;
+        for (int i = 0; i < query.length; i++) {
+            dot += embedding[i] * query[i];
+            embeddingNorm += embedding[i] * embedding[i];
+            queryNorm += query[i] * query[i];
+        }
+        return embeddingNorm == 0 || queryNorm == 0 ? -1 : dot / Math.sqrt(embeddingNorm * queryNorm);
+    }
+
+    private String callLlm(String question, String context, Consumer<String> partialAnswerCallback) {
         String userPrompt = String.format("""
                 Context from notes:
                 %s
@@ -155,7 +220,46 @@ public class RagService {
         var userMessage = new UserMessage(userPrompt);
         var prompt = new Prompt(List.of(systemMessage, userMessage));
 
-        var response = anthropicChatModel.call(prompt);
+        if (!ragConfig.getStream().isEnabled()) {
+            return anthropicChatModel.call(prompt).getResult().getOutput().getText();
+        }
+
+        return streamLlm(prompt, partialAnswerCallback);
+    }
+
+    private String streamLlm(Prompt prompt, Consumer<String> partialAnswerCallback) {
+        long flushIntervalNanos = ragConfig.getStream().getFlushIntervalMs() * 1_000_000;
+        StringBuilder answer = new StringBuilder();
+        // The first tokens are flushed right away - time to first token is what the user notices
+        long[] lastFlush = {System.nanoTime() - flushIntervalNanos};
+        int[] flushedLength = {0};
+
+        anthropicChatModel.stream(prompt)
+                .doOnNext(response -> {
+                    String delta = textOf(response);
+                    if (delta == null || delta.isEmpty()) {
+                        return;
+                    }
+                    answer.append(delta);
+
+                    long now = System.nanoTime();
+                    if (now - lastFlush[0] >= flushIntervalNanos) {
+                        lastFlush[0] = now;
+                        flushedLength[0] = answer.length();
+                        partialAnswerCallback.accept(answer.toString());
+                    }
+                })
+                .blockLast();
+
+        log.debug("Streamed answer of {} chars ({} flushed as partial)", answer.length(), flushedLength[0]);
+        return answer.toString();
+    }
+
+    private static String textOf(ChatResponse response) {
+        // Stream events without content (message start, usage) carry no generation
+        if (response == null || response.getResult() == null || response.getResult().getOutput() == null) {
+            return null;
+        }
         return response.getResult().getOutput().getText();
     }
 
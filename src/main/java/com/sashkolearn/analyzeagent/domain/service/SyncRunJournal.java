@@ -0,0 +1,134 @@
+package com.sashkolearn.analyzeagent.domain.service;
+
+import com.sashkolearn.analyzeagent.config.NotesConfig;
+import com.sashkolearn.analyzeagent.domain.entity.SyncRun;
+import com.sashkolearn.analyzeagent.domain.model.SyncStage;
+import com.sashkolearn.analyzeagent.domain.repository.SyncRunRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Persisted journal of sync runs. Records which notes a run changed and which per-note stages
+ * (attachments, links) were already committed for them, so a run interrupted by a crash or
+ * redeploy is picked up by the next one instead of losing its changed notes.
+ * Each try of a note's pending stage is counted; after notes.sync.max-note-attempts the stage is
+ * skipped for that note, so one note that always fails (or crashes the process) cannot keep the run
+ * from completing.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SyncRunJournal {
+
+    private final SyncRunRepository syncRunRepository;
+    private final NotesConfig notesConfig;
+
+    /**
+     * Returns the latest unfinished run, or starts a new one.
+     */
+    @Transactional
+    public SyncRun startOrResume() {
+        return syncRunRepository.findFirstByCompletedAtIsNullOrderByStartedAtDesc()
+                .map(run -> {
+                    log.info("Resuming sync run {} interrupted at stage {}", run.getId(), run.getStage());
+                    return run;
+                })
+                .orElseGet(() -> {
+                    SyncRun run = syncRunRepository.save(SyncRun.builder().stage(SyncStage.SCAN).build());
+                    log.info("Started sync run {}", run.getId());
+                    return run;
+                });
+    }
+
+    /**
+     * Joins the caller's transaction so notes and their journal entries are committed together.
+     */
+    @Transactional
+    public void addChangedNotes(UUID runId, Collection<UUID> noteIds) {
+        if (!noteIds.isEmpty()) {
+            syncRunRepository.addRunNotes(runId, noteIds);
+        }
+    }
+
+    @Transactional
+    public void moveToStage(UUID runId, SyncStage stage) {
+        syncRunRepository.findById(runId).ifPresent(run -> run.setStage(stage));
+        log.debug("Sync run {} moved to stage {}", runId, stage);
+    }
+
+    /**
+     * Notes still waiting for attachment processing; those out of attempts are marked done first.
+     */
+    @Transactional
+    public List<UUID> findPendingAttachmentNotes(UUID runId) {
+        List<UUID> exhausted = syncRunRepository.findExhaustedAttachmentNoteIds(runId, maxAttempts());
+        if (!exhausted.isEmpty()) {
+            log.error("Skipping attachments of {} notes after {} failed attempts: {}", exhausted.size(), maxAttempts(), exhausted);
+            syncRunRepository.markAttachmentsDone(runId, exhausted);
+        }
+        return syncRunRepository.findPendingAttachmentNoteIds(runId);
+    }
+
+    /**
+     * Notes still waiting for link building; those out of attempts are marked done first.
+     */
+    @Transactional
+    public List<UUID> findPendingLinkNotes(UUID runId) {
+        List<UUID> exhausted = syncRunRepository.findExhaustedLinkNoteIds(runId, maxAttempts());
+        if (!exhausted.isEmpty()) {
+            log.error("Skipping links of {} notes after {} failed attempts: {}", exhausted.size(), maxAttempts(), exhausted);
+            syncRunRepository.markLinksDone(runId, exhausted);
+        }
+        return syncRunRepository.findPendingLinkNoteIds(runId);
+    }
+
+    /**
+     * Counts a try of the pending stage before it runs, so a try that takes the process down counts too.
+     */
+    @Transactional
+    public void recordAttempt(UUID runId, Collection<UUID> noteIds) {
+        if (!noteIds.isEmpty()) {
+            syncRunRepository.incrementAttempts(runId, noteIds);
+        }
+    }
+
+    @Transactional
+    public void recordFailure(UUID runId, UUID noteId, Exception error) {
+        syncRunRepository.recordError(runId, noteId, String.valueOf(error.getMessage()));
+    }
+
+    @Transactional
+    public void markAttachmentsDone(UUID runId, Collection<UUID> noteIds) {
+        if (!noteIds.isEmpty()) {
+            syncRunRepository.markAttachmentsDone(runId, noteIds);
+        }
+    }
+
+    @Transactional
+    public void markLinksDone(UUID runId, Collection<UUID> noteIds) {
+        if (!noteIds.isEmpty()) {
+            syncRunRepository.markLinksDone(runId, noteIds);
+        }
+    }
+
+    @Transactional
+    public void complete(UUID runId) {
+        syncRunRepository.findById(runId).ifPresent(run -> {
+            run.setStage(SyncStage.COMPLETED);
+            run.setCompletedAt(LocalDateTime.now());
+        });
+        syncRunRepository.deleteRunNotes(runId);
+        log.info("Sync run {} completed", runId);
+    }
+
+    private int maxAttempts() {
+        return Math.max(1, notesConfig.getSync().getMaxNoteAttempts());
+    }
+}
@@ -1,53 +1,37 @@
 package com.sashkolearn.analyzeagent.domain.service;
 
+import com.sashkolearn.analyzeagent.infrastructure.markdown.MarkdownScan;
+import com.sashkolearn.analyzeagent.infrastructure.markdown.MarkdownScanner;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 @Service
 @Slf4j
 public class WikilinkParserService {
 
-    // Matches [[link]] but not ![[image]]
-    private static final Pattern WIKILINK_PATTERN = Pattern.compile("(?<!!)\\[\\[([^\\]]+)\\]\\]");
-
     /**
      * Extracts wikilinks from markdown content
      *
      * Examples:
-     * - [[Note]] -> "Note"
-     * - [[Note|alias]] -> "Note" (ignores alias)
-     * - ![[image.png]] -> ignored (embedded image)
+     * - [[Note]] -> "Note.md"
+     * - [[Note|alias]] -> "Note.md" (ignores alias)
+     * - [[Note#Heading]], [[Note#^block]] -> "Note.md" (links to the note)
+     * - [[#Heading]] -> ignored (same-note link)
+     * - ![[image.png]] -> ignored (embed)
+     * - links inside code blocks and inline code -> ignored
      *
      * @param content markdown text
      * @return list of normalized file names
      */
     public List<String> extractWikilinks(String content) {
-        if (content == null || content.isBlank()) {
-            return List.of();
-        }
-
         List<String> wikilinks = new ArrayList<>();
-        Matcher matcher = WIKILINK_PATTERN.matcher(content);
-
-        while (matcher.find()) {
-            String link = matcher.group(1).trim();
-
-            // Handle [[note|alias]] format - take only the note part
-            if (link.contains("|")) {
-                link = link.substring(0, link.indexOf("|")).trim();
-            }
-
-            if (link.isEmpty()) {
-                continue;
+        for (MarkdownScan.Wikilink link : MarkdownScanner.scan(content).links()) {
+            if (!link.target().isEmpty()) {
+                wikilinks.add(normalizeFileName(link.target()));
             }
-
-            String normalizedFileName = normalizeFileName(link);
-            wikilinks.add(normalizedFileName);
         }
 
         log.debug("Extracted {} wikilinks from content", wikilinks.size());
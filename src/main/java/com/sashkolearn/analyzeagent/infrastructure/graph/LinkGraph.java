@@ -0,0 +1,241 @@
+package com.sashkolearn.analyzeagent.infrastructure.graph;
+
+import com.sashkolearn.analyzeagent.domain.model.LinkEdge;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Immutable undirected link graph in compressed sparse row form: the neighbours of
+ * ordinal {@code n} are {@code targets[offsets[n] .. offsets[n + 1])}.
+ * Updates produce a new graph via {@link #withEdgesReplaced}, so readers never lock.
+ */
+public final class LinkGraph {
+
+    public static final LinkGraph EMPTY = build(List.of());
+
+    private final UUID[] ids;
+    private final Map<UUID, Integer> ordinals;
+    private final int[] offsets;
+    private final int[] targets;
+
+    private LinkGraph(UUID[] ids, Map<UUID, Integer> ordinals, int[] offsets, int[] targets) {
+        this.ids = ids;
+        this.ordinals = ordinals;
+        this.offsets = offsets;
+        this.targets = targets;
+    }
+
+    /**
+     * Builds the graph from directed links; direction and duplicate links are dropped.
+     */
+    public static LinkGraph build(Collection<LinkEdge> edges) {
+        Map<UUID, Integer> ordinals = new HashMap<>();
+        List<UUID> ids = new ArrayList<>();
+        int[] from = new int[edges.size()];
+        int[] to = new int[edges.size()];
+        int count = 0;
+
+        for (LinkEdge edge : edges) {
+            if (edge.fromId().equals(edge.toId())) {
+                continue;
+            }
+            from[count] = ordinals.computeIfAbsent(edge.fromId(), id -> { ids.add(id); return ids.size() - 1; });
+            to[count] = ordinals.computeIfAbsent(edge.toId(), id -> { ids.add(id); return ids.size() - 1; });
+            count++;
+        }
+
+        // Counting sort of both directions into rows, then dedupe within each row
+        int nodes = ids.size();
+        int[] degrees = new int[nodes + 1];
+        for (int i = 0; i < count; i++) {
+            degrees[from[i] + 1]++;
+            degrees[to[i] + 1]++;
+        }
+        for (int n = 0; n < nodes; n++) {
+            degrees[n + 1] += degrees[n];
+        }
+        int[] rowStart = degrees.clone();
+        int[] cursor = Arrays.copyOf(degrees, nodes);
+        int[] raw = new int[2 * count];
+        for (int i = 0; i < count; i++) {
+            raw[cursor[from[i]]++] = to[i];
+            raw[cursor[to[i]]++] = from[i];
+        }
+
+        int[] offsets = new int[nodes + 1];
+        int[] targets = new int[raw.length];
+        int size = 0;
+        for (int n = 0; n < nodes; n++) {
+            offsets[n] = size;
+            int start = rowStart[n];
+            int end = rowStart[n + 1];
+            Arrays.sort(raw, start, end);
+            for (int i = start; i < end; i++) {
+                if (i == start || raw[i] != raw[i - 1]) {
+                    targets[size++] = raw[i];
+                }
+            }
+        }
+        offsets[nodes] = size;
+
+        return new LinkGraph(ids.toArray(UUID[]::new), ordinals, offsets, Arrays.copyOf(targets, size));
+    }
+
+    /**
+     * Returns a new graph in which every link touching {@code noteIds} is replaced by {@code edges}.
+     */
+    public LinkGraph withEdgesReplaced(Collection<UUID> noteIds, Collection<LinkEdge> edges) {
+        boolean[] replaced = new boolean[ids.length];
+        for (UUID noteId : noteIds) {
+            Integer ordinal = ordinals.get(noteId);
+            if (ordinal != null) {
+                replaced[ordinal] = true;
+            }
+        }
+
+        List<LinkEdge> kept = new ArrayList<>(edgeCount() + edges.size());
+        for (int n = 0; n < ids.length; n++) {
+            if (replaced[n]) {
+                continue;
+            }
+            for (int i = offsets[n]; i < offsets[n + 1]; i++) {
+                // Each undirected edge is stored twice; keep one copy
+                int m = targets[i];
+                if (n < m && !replaced[m]) {
+                    kept.add(new LinkEdge(ids[n], ids[m]));
+                }
+            }
+        }
+        kept.addAll(edges);
+        return build(kept);
+    }
+
+    public int nodeCount() {
+        return ids.length;
+    }
+
+    public int edgeCount() {
+        return targets.length / 2;
+    }
+
+    /**
+     * Personalized PageRank with teleport probability {@code alpha} back to the seeds, approximated
+     * by local forward push: only nodes holding more than {@code epsilon} residual mass per link are
+     * visited, so the cost depends on the seeds' neighbourhood rather than on the graph size.
+     * On an undirected graph raw PageRank grows with a node's degree, so scores are divided by
+     * degree - otherwise hub notes linked from everywhere would outrank the seeds' real neighbours.
+     *
+     * @param seedWeights seed notes with non-negative weights (normalized here)
+     * @return degree-normalized scores of the non-seed notes within {@code maxHops} of a seed
+     */
+    public Map<UUID, Double> personalizedPageRank(Map<UUID, Double> seedWeights, double alpha, double epsilon, int maxHops) {
+        double total = 0;
+        for (Map.Entry<UUID, Double> seed : seedWeights.entrySet()) {
+            if (ordinals.containsKey(seed.getKey())) {
+                total += seed.getValue();
+            }
+        }
+        if (total <= 0) {
+            return Map.of();
+        }
+
+        Reach reach = reach(seedWeights.keySet(), maxHops);
+        double[] rank = new double[ids.length];
+        double[] residual = new double[ids.length];
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+
+        for (Map.Entry<UUID, Double> seed : seedWeights.entrySet()) {
+            Integer ordinal = ordinals.get(seed.getKey());
+            if (ordinal != null) {
+                residual[ordinal] += seed.getValue() / total;
+                queue.add(ordinal);
+            }
+        }
+
+        while (!queue.isEmpty()) {
+            int n = queue.poll();
+            int degree = offsets[n + 1] - offsets[n];
+            double mass = residual[n];
+            if (mass <= epsilon * degree) {
+                continue;
+            }
+
+            residual[n] = 0;
+            if (degree == 0) {
+                rank[n] += mass;
+                continue;
+            }
+            rank[n] += alpha * mass;
+            double share = (1 - alpha) * mass / degree;
+            for (int i = offsets[n]; i < offsets[n + 1]; i++) {
+                int m = targets[i];
+                // Mass is not pushed past the hop limit
+                if (reach.distances()[m] < 0) {
+                    continue;
+                }
+                double threshold = epsilon * (offsets[m + 1] - offsets[m]);
+                boolean queued = residual[m] > threshold;
+                residual[m] += share;
+                if (!queued && residual[m] > threshold) {
+                    queue.add(m);
+                }
+            }
+        }
+
+        Map<UUID, Double> scores = new HashMap<>();
+        for (int i = 0; i < reach.count(); i++) {
+            int n = reach.order()[i];
+            if (rank[n] > 0 && !seedWeights.containsKey(ids[n])) {
+                scores.put(ids[n], rank[n] / (offsets[n + 1] - offsets[n]));
+            }
+        }
+        return scores;
+    }
+
+    /**
+     * BFS from the seeds up to {@code hops} links.
+     */
+    private Reach reach(Collection<UUID> seeds, int hops) {
+        int[] distances = new int[ids.length];
+        Arrays.fill(distances, -1);
+        int[] order = new int[ids.length];
+        int count = 0;
+
+        for (UUID seed : seeds) {
+            Integer ordinal = ordinals.get(seed);
+            if (ordinal != null && distances[ordinal] < 0) {
+                distances[ordinal] = 0;
+                order[count++] = ordinal;
+            }
+        }
+
+        for (int head = 0; head < count; head++) {
+            int n = order[head];
+            if (distances[n] == hops) {
+                continue;
+            }
+            for (int i = offsets[n]; i < offsets[n + 1]; i++) {
+                int m = targets[i];
+                if (distances[m] < 0) {
+                    distances[m] = distances[n] + 1;
+                    order[count++] = m;
+                }
+            }
+        }
+        return new Reach(distances, order, count);
+    }
+
+    /**
+     * @param distances hop distance per ordinal, -1 when not reached
+     * @param order     reached ordinals in BFS order, the first {@code count} entries are valid
+     */
+    private record Reach(int[] distances, int[] order, int count) {
+    }
+}
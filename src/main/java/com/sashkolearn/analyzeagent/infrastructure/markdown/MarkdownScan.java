@@ -0,0 +1,102 @@
+package com.sashkolearn.analyzeagent.infrastructure.markdown;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Result of {@link MarkdownScanner#scan(String, MarkdownScan)}. Reusable: every scan resets it,
+ * so a loop over many notes can keep a single instance.
+ */
+public final class MarkdownScan {
+
+    private final List<Wikilink> links = new ArrayList<>();
+    private final List<Wikilink> embeds = new ArrayList<>();
+    private final List<String> tags = new ArrayList<>();
+    private final List<Heading> headings = new ArrayList<>();
+    private int frontmatterStart = -1;
+    private int frontmatterEnd = -1;
+
+    void reset() {
+        links.clear();
+        embeds.clear();
+        tags.clear();
+        headings.clear();
+        frontmatterStart = -1;
+        frontmatterEnd = -1;
+    }
+
+    void addWikilink(Wikilink wikilink) {
+        (wikilink.embed() ? embeds : links).add(wikilink);
+    }
+
+    void addTag(String tag) {
+        tags.add(tag);
+    }
+
+    void addHeading(Heading heading) {
+        headings.add(heading);
+    }
+
+    void setFrontmatter(int start, int end) {
+        this.frontmatterStart = start;
+        this.frontmatterEnd = end;
+    }
+
+    /**
+     * {@code [[...]]} links in document order, embeds excluded.
+     */
+    public List<Wikilink> links() {
+        return links;
+    }
+
+    /**
+     * {@code ![[...]]} embeds (images, other notes) in document order.
+     */
+    public List<Wikilink> embeds() {
+        return embeds;
+    }
+
+    /**
+     * Inline {@code #tags} without the leading hash, in document order (may repeat).
+     */
+    public List<String> tags() {
+        return tags;
+    }
+
+    public List<Heading> headings() {
+        return headings;
+    }
+
+    public boolean hasFrontmatter() {
+        return frontmatterStart >= 0;
+    }
+
+    /**
+     * Offset of the first frontmatter character (after the opening ---), -1 without frontmatter.
+     */
+    public int frontmatterStart() {
+        return frontmatterStart;
+    }
+
+    /**
+     * Offset of the closing --- line, -1 without frontmatter.
+     */
+    public int frontmatterEnd() {
+        return frontmatterEnd;
+    }
+
+    /**
+     * @param target   linked note or file as written, without heading, block ref or alias; empty for same-note links
+     * @param heading  {@code [[Note#Heading]]} part, null when absent
+     * @param blockRef {@code [[Note#^block]]} id, null when absent
+     * @param alias    {@code [[Note|alias]]} part (for embeds: size, e.g. {@code |300}), null when absent
+     */
+    public record Wikilink(String target, String heading, String blockRef, String alias, boolean embed) {
+    }
+
+    /**
+     * @param offset offset of the heading line in the content
+     */
+    public record Heading(int level, String text, int offset) {
+    }
+}
@@ -0,0 +1,239 @@
+package com.sashkolearn.analyzeagent.infrastructure.markdown;
+
+/**
+ * Single-pass, hand-written scanner for the Obsidian markdown subset the sync cares about:
+ * frontmatter boundaries, wikilinks and embeds (alias, heading and block-ref aware), inline tags
+ * and ATX headings. Fenced code blocks and inline code spans are skipped. Walks the content once,
+ * line by line, and allocates only the strings it emits.
+ */
+public final class MarkdownScanner {
+
+    private MarkdownScanner() {
+    }
+
+    public static MarkdownScan scan(String content) {
+        MarkdownScan result = new MarkdownScan();
+        scan(content, result);
+        return result;
+    }
+
+    /**
+     * Scans into {@code result}, replacing whatever it held.
+     */
+    public static void scan(String content, MarkdownScan result) {
+        result.reset();
+        if (content == null || content.isEmpty()) {
+            return;
+        }
+
+        int length = content.length();
+        int pos = scanFrontmatter(content, result);
+        char fenceChar = 0;
+        int fenceLength = 0;
+
+        while (pos < length) {
+            int lineEnd = content.indexOf('\n', pos);
+            if (lineEnd < 0) {
+                lineEnd = length;
+            }
+
+            // Up to three spaces of indentation are allowed before a fence or heading marker
+            int start = pos;
+            while (start < lineEnd && start - pos < 3 && content.charAt(start) == ' ') {
+                start++;
+            }
+            char first = start < lineEnd ? content.charAt(start) : 0;
+
+            if (first == '`' || first == '~') {
+                int run = countRun(content, start, lineEnd, first);
+                if (run >= 3) {
+                    if (fenceChar == 0) {
+                        fenceChar = first;
+                        fenceLength = run;
+                    } else if (first == fenceChar && run >= fenceLength && isBlank(content, start + run, lineEnd)) {
+                        fenceChar = 0;
+                    }
+                    pos = lineEnd + 1;
+                    continue;
+                }
+            }
+
+            if (fenceChar == 0) {
+                int inlineStart = pos;
+                if (first == '#') {
+                    int level = countRun(content, start, lineEnd, '#');
+                    int textStart = start + level;
+                    if (level <= 6 && (textStart == lineEnd || isSpace(content.charAt(textStart)))) {
+                        result.addHeading(new MarkdownScan.Heading(level, content.substring(textStart, lineEnd).strip(), pos));
+                        inlineStart = textStart;
+                    }
+                }
+                scanInline(content, inlineStart, lineEnd, result, true);
+            }
+            pos = lineEnd + 1;
+        }
+    }
+
+    /**
+     * Records frontmatter (a leading --- block) and scans it for wikilinks only - properties such as
+     * {@code related: "[[Note]]"} are links, but YAML comments and keys are not tags or headings.
+     *
+     * @return offset where the body starts
+     */
+    private static int scanFrontmatter(String content, MarkdownScan result) {
+        int firstLineEnd = content.indexOf('\n');
+        if (firstLineEnd < 0 || !isDelimiter(content, 0, firstLineEnd)) {
+            return 0;
+        }
+
+        int pos = firstLineEnd + 1;
+        while (pos < content.length()) {
+            int lineEnd = content.indexOf('\n', pos);
+            if (lineEnd < 0) {
+                lineEnd = content.length();
+            }
+            if (isDelimiter(content, pos, lineEnd)) {
+                result.setFrontmatter(firstLineEnd + 1, pos);
+                scanInline(content, firstLineEnd + 1, pos, result, false);
+                return lineEnd + 1;
+            }
+            pos = lineEnd + 1;
+        }
+        // Unterminated: not frontmatter, scan it as body
+        return 0;
+    }
+
+    private static void scanInline(String content, int from, int to, MarkdownScan result, boolean tags) {
+        int i = from;
+        while (i < to) {
+            char c = content.charAt(i);
+            if (c == '`') {
+                int run = countRun(content, i, to, '`');
+                int close = findRun(content, i + run, to, '`', run);
+                i = close < 0 ? i + run : close + run;
+            } else if (c == '[' && i + 1 < to && content.charAt(i + 1) == '[') {
+                int close = indexOfClose(content, i + 2, to);
+                if (close < 0) {
+                    i += 2;
+                    continue;
+                }
+                if (close > i + 2) {
+                    boolean embed = i > from && content.charAt(i - 1) == '!';
+                    result.addWikilink(parseWikilink(content, i + 2, close, embed));
+                }
+                i = close + 2;
+            } else if (c == '#' && tags && (i == from || Character.isWhitespace(content.charAt(i - 1)))) {
+                int end = i + 1;
+                boolean hasNonDigit = false;
+                while (end < to && isTagChar(content.charAt(end))) {
+                    hasNonDigit |= !Character.isDigit(content.charAt(end));
+                    end++;
+                }
+                if (hasNonDigit) {
+                    result.addTag(content.substring(i + 1, end));
+                }
+                i = Math.max(end, i + 1);
+            } else {
+                i++;
+            }
+        }
+    }
+
+    private static MarkdownScan.Wikilink parseWikilink(String content, int from, int to, boolean embed) {
+        String alias = null;
+        int targetEnd = to;
+        int pipe = indexOf(content, '|', from, to);
+        if (pipe >= 0) {
+            alias = content.substring(pipe + 1, to).strip();
+            // Inside tables the alias pipe is escaped as \|
+            targetEnd = pipe > from && content.charAt(pipe - 1) == '\\' ? pipe - 1 : pipe;
+        }
+
+        String heading = null;
+        String blockRef = null;
+        int hash = indexOf(content, '#', from, targetEnd);
+        if (hash >= 0) {
+            if (hash + 1 < targetEnd && content.charAt(hash + 1) == '^') {
+                blockRef = content.substring(hash + 2, targetEnd).strip();
+            } else {
+                heading = content.substring(hash + 1, targetEnd).strip();
+            }
+            targetEnd = hash;
+        }
+
+        return new MarkdownScan.Wikilink(content.substring(from, targetEnd).strip(), heading, blockRef, alias, embed);
+    }
+
+    /**
+     * Like {@link String#indexOf(int, int)} but stops at {@code to}, so a line without the character
+     * does not cost a search through the rest of the note.
+     */
+    private static int indexOf(String content, char c, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (content.charAt(i) == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Offset of the first {@code ]]} within {@code [from, to)}, or -1.
+     */
+    private static int indexOfClose(String content, int from, int to) {
+        for (int i = from; i + 1 < to; i++) {
+            if (content.charAt(i) == ']' && content.charAt(i + 1) == ']') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isDelimiter(String content, int from, int to) {
+        return to - from >= 3 && content.startsWith("---", from) && isBlank(content, from + 3, to);
+    }
+
+    private static int countRun(String content, int from, int to, char c) {
+        int i = from;
+        while (i < to && content.charAt(i) == c) {
+            i++;
+        }
+        return i - from;
+    }
+
+    /**
+     * Offset of the next run of exactly {@code length} characters {@code c}, or -1.
+     */
+    private static int findRun(String content, int from, int to, char c, int length) {
+        int i = from;
+        while (i < to) {
+            if (content.charAt(i) == c) {
+                int run = countRun(content, i, to, c);
+                if (run == length) {
+                    return i;
+                }
+                i += run;
+            } else {
+                i++;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isBlank(String content, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (!Character.isWhitespace(content.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\r';
+    }
+
+    private static boolean isTagChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '-' || c == '/';
+    }
+}
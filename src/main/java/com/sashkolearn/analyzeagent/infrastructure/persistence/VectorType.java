@@ -0,0 +1,85 @@
+package com.sashkolearn.analyzeagent.infrastructure.persistence;
+
+import com.sashkolearn.analyzeagent.util.VectorUtils;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.usertype.UserType;
+
+import java.io.Serializable;
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Arrays;
+
+/**
+ * Maps a pgvector column to float[] without going through the pgvector text format.
+ * The column is expected to be read as real[] (see {@code @ColumnTransformer} on the entities),
+ * which the PostgreSQL driver transfers in binary; written values are bound as a binary float4[]
+ * and cast to vector by the server.
+ *
+ * A raw vector column (e.g. {@code SELECT *} in a native query) still arrives as text and is parsed.
+ */
+public class VectorType implements UserType<float[]> {
+
+    @Override
+    public int getSqlType() {
+        return Types.ARRAY;
+    }
+
+    @Override
+    public Class<float[]> returnedClass() {
+        return float[].class;
+    }
+
+    @Override
+    public boolean equals(float[] x, float[] y) {
+        return Arrays.equals(x, y);
+    }
+
+    @Override
+    public int hashCode(float[] x) {
+        return Arrays.hashCode(x);
+    }
+
+    @Override
+    public float[] nullSafeGet(ResultSet rs, int position, SharedSessionContractImplementor session, Object owner) throws SQLException {
+        Object value = rs.getObject(position);
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof Array array) {
+            return VectorUtils.fromSqlArray(array);
+        }
+        return VectorUtils.fromVectorString(rs.getString(position));
+    }
+
+    @Override
+    public void nullSafeSet(PreparedStatement st, float[] value, int index, SharedSessionContractImplementor session) throws SQLException {
+        if (value == null) {
+            st.setNull(index, Types.ARRAY);
+        } else {
+            st.setObject(index, value);
+        }
+    }
+
+    @Override
+    public float[] deepCopy(float[] value) {
+        return value == null ? null : value.clone();
+    }
+
+    @Override
+    public boolean isMutable() {
+        return true;
+    }
+
+    @Override
+    public Serializable disassemble(float[] value) {
+        return deepCopy(value);
+    }
+
+    @Override
+    public float[] assemble(Serializable cached, Object owner) {
+        return deepCopy((float[]) cached);
+    }
+}
@@ -0,0 +1,113 @@
+package com.sashkolearn.analyzeagent.infrastructure.vector;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Exact brute-force index: every query scans all rows with a SIMD dot product.
+ * Rows stay densely packed - a removed row is replaced by the last one.
+ */
+public class ExactVectorIndex implements VectorIndex {
+
+    private final VectorStorage storage;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<UUID, Integer> rowsById = new HashMap<>();
+    private final List<UUID> idsByRow = new ArrayList<>();
+
+    public ExactVectorIndex(int dimensions, int initialCapacity) {
+        this.storage = new VectorStorage(dimensions, initialCapacity);
+    }
+
+    @Override
+    public void upsert(UUID id, float[] vector) {
+        checkDimensions(vector);
+        float[] normalized = VectorIndex.normalize(vector);
+
+        lock.writeLock().lock();
+        try {
+            Integer row = rowsById.get(id);
+            if (row == null) {
+                row = idsByRow.size();
+                idsByRow.add(id);
+                rowsById.put(id, row);
+            }
+            storage.set(row, normalized);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(UUID id) {
+        lock.writeLock().lock();
+        try {
+            Integer row = rowsById.remove(id);
+            if (row == null) {
+                return;
+            }
+            int last = idsByRow.size() - 1;
+            UUID lastId = idsByRow.remove(last);
+            if (row != last) {
+                storage.copyRow(last, row);
+                idsByRow.set(row, lastId);
+                rowsById.put(lastId, row);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Match> search(float[] query, int k) {
+        checkDimensions(query);
+        if (k <= 0) {
+            return List.of();
+        }
+        float[] normalized = VectorIndex.normalize(query);
+
+        lock.readLock().lock();
+        try {
+            // Min-heap of the best k so far; its head is the weakest kept match
+            PriorityQueue<Match> best = new PriorityQueue<>(Comparator.comparingDouble(Match::similarity));
+            for (int row = 0; row < idsByRow.size(); row++) {
+                float similarity = storage.dot(row, normalized);
+                if (best.size() < k) {
+                    best.add(new Match(idsByRow.get(row), similarity));
+                } else if (similarity > best.peek().similarity()) {
+                    best.poll();
+                    best.add(new Match(idsByRow.get(row), similarity));
+                }
+            }
+
+            List<Match> result = new ArrayList<>(best);
+            result.sort(Comparator.comparingDouble(Match::similarity).reversed());
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return idsByRow.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void checkDimensions(float[] vector) {
+        if (vector.length != storage.dimensions()) {
+            throw new IllegalArgumentException(
+                    "Expected vector of " + storage.dimensions() + " dimensions, got " + vector.length);
+        }
+    }
+}
@@ -0,0 +1,270 @@
+package com.sashkolearn.analyzeagent.infrastructure.vector;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Approximate index (HNSW graph) over off-heap vectors for vaults where an exact scan gets too slow.
+ * Neighbours are kept by plain closest-first selection. Removed or replaced vectors stay in the
+ * graph as tombstones for navigation and are skipped in results; the graph is rebuilt from live
+ * vectors once tombstones reach a quarter of all nodes.
+ */
+@Slf4j
+public class HnswVectorIndex implements VectorIndex {
+
+    private static final int COMPACTION_MIN_DELETED = 64;
+
+    private final int dimensions;
+    private final int m;
+    private final int maxConnectionsLevel0;
+    private final int efConstruction;
+    private final int efSearch;
+    private final double levelMultiplier;
+    private final Random random = new Random();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private VectorStorage storage;
+    private final List<UUID> idsByNode = new ArrayList<>();
+    private final List<int[][]> linksByNode = new ArrayList<>();
+    private final Map<UUID, Integer> nodesById = new HashMap<>();
+    private final BitSet deleted = new BitSet();
+    private int deletedCount;
+    private int entryPoint = -1;
+    private int maxLevel = -1;
+
+    public HnswVectorIndex(int dimensions, int initialCapacity, int m, int efConstruction, int efSearch) {
+        this.dimensions = dimensions;
+        this.m = Math.max(2, m);
+        this.maxConnectionsLevel0 = this.m * 2;
+        this.efConstruction = Math.max(this.m, efConstruction);
+        this.efSearch = Math.max(1, efSearch);
+        this.levelMultiplier = 1 / Math.log(this.m);
+        this.storage = new VectorStorage(dimensions, initialCapacity);
+    }
+
+    @Override
+    public void upsert(UUID id, float[] vector) {
+        checkDimensions(vector);
+        float[] normalized = VectorIndex.normalize(vector);
+
+        lock.writeLock().lock();
+        try {
+            markDeleted(nodesById.remove(id));
+            insert(id, normalized);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(UUID id) {
+        lock.writeLock().lock();
+        try {
+            markDeleted(nodesById.remove(id));
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Match> search(float[] query, int k) {
+        checkDimensions(query);
+        if (k <= 0) {
+            return List.of();
+        }
+        float[] normalized = VectorIndex.normalize(query);
+
+        lock.readLock().lock();
+        try {
+            if (entryPoint < 0) {
+                return List.of();
+            }
+
+            int nearest = entryPoint;
+            for (int level = maxLevel; level > 0; level--) {
+                nearest = searchLayer(normalized, nearest, 1, level).getFirst().node();
+            }
+
+            return searchLayer(normalized, nearest, Math.max(efSearch, k), 0).stream()
+                    .filter(candidate -> !deleted.get(candidate.node()))
+                    .limit(k)
+                    .map(candidate -> new Match(idsByNode.get(candidate.node()), candidate.similarity()))
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return nodesById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void insert(UUID id, float[] vector) {
+        int node = idsByNode.size();
+        idsByNode.add(id);
+        nodesById.put(id, node);
+        storage.set(node, vector);
+
+        int level = randomLevel();
+        int[][] links = new int[level + 1][];
+        Arrays.fill(links, new int[0]);
+        linksByNode.add(links);
+
+        if (entryPoint < 0) {
+            entryPoint = node;
+            maxLevel = level;
+            return;
+        }
+
+        int nearest = entryPoint;
+        for (int l = maxLevel; l > level; l--) {
+            nearest = searchLayer(vector, nearest, 1, l).getFirst().node();
+        }
+
+        for (int l = Math.min(level, maxLevel); l >= 0; l--) {
+            List<Candidate> candidates = searchLayer(vector, nearest, efConstruction, l);
+            int maxConnections = l == 0 ? maxConnectionsLevel0 : m;
+
+            links[l] = candidates.stream().limit(m).mapToInt(Candidate::node).toArray();
+            for (int neighbour : links[l]) {
+                connect(neighbour, node, l, maxConnections);
+            }
+            nearest = candidates.getFirst().node();
+        }
+
+        if (level > maxLevel) {
+            maxLevel = level;
+            entryPoint = node;
+        }
+    }
+
+    /**
+     * Adds a back link, dropping the neighbour's farthest link when it is over capacity.
+     */
+    private void connect(int node, int newNeighbour, int level, int maxConnections) {
+        int[] current = linksByNode.get(node)[level];
+        int[] extended = Arrays.copyOf(current, current.length + 1);
+        extended[current.length] = newNeighbour;
+
+        if (extended.length > maxConnections) {
+            float[] base = storage.get(node);
+            extended = Arrays.stream(extended)
+                    .mapToObj(neighbour -> new Candidate(neighbour, storage.dot(neighbour, base)))
+                    .sorted(Comparator.comparingDouble(Candidate::similarity).reversed())
+                    .limit(maxConnections)
+                    .mapToInt(Candidate::node)
+                    .toArray();
+        }
+        linksByNode.get(node)[level] = extended;
+    }
+
+    /**
+     * Best-first search of one layer.
+     *
+     * @return up to ef nodes ordered by descending similarity (tombstones included)
+     */
+    private List<Candidate> searchLayer(float[] query, int entry, int ef, int level) {
+        BitSet visited = new BitSet(idsByNode.size());
+        PriorityQueue<Candidate> toVisit = new PriorityQueue<>(Comparator.comparingDouble(Candidate::similarity).reversed());
+        PriorityQueue<Candidate> found = new PriorityQueue<>(Comparator.comparingDouble(Candidate::similarity));
+
+        Candidate start = new Candidate(entry, storage.dot(entry, query));
+        visited.set(entry);
+        toVisit.add(start);
+        found.add(start);
+
+        while (!toVisit.isEmpty()) {
+            Candidate current = toVisit.poll();
+            if (found.size() >= ef && current.similarity() < found.peek().similarity()) {
+                break;
+            }
+
+            for (int neighbour : linksByNode.get(current.node())[level]) {
+                if (visited.get(neighbour)) {
+                    continue;
+                }
+                visited.set(neighbour);
+
+                float similarity = storage.dot(neighbour, query);
+                if (found.size() < ef || similarity > found.peek().similarity()) {
+                    Candidate candidate = new Candidate(neighbour, similarity);
+                    toVisit.add(candidate);
+                    found.add(candidate);
+                    if (found.size() > ef) {
+                        found.poll();
+                    }
+                }
+            }
+        }
+
+        List<Candidate> result = new ArrayList<>(found);
+        result.sort(Comparator.comparingDouble(Candidate::similarity).reversed());
+        return result;
+    }
+
+    private int randomLevel() {
+        return (int) Math.floor(-Math.log(1 - random.nextDouble()) * levelMultiplier);
+    }
+
+    private void markDeleted(Integer node) {
+        if (node != null && !deleted.get(node)) {
+            deleted.set(node);
+            deletedCount++;
+        }
+    }
+
+    private void compactIfNeeded() {
+        if (deletedCount < COMPACTION_MIN_DELETED || deletedCount * 4 < idsByNode.size()) {
+            return;
+        }
+
+        log.info("Rebuilding HNSW graph: {} live nodes, {} tombstones", nodesById.size(), deletedCount);
+        VectorStorage previousStorage = storage;
+        List<UUID> previousIds = new ArrayList<>(idsByNode);
+        BitSet previousDeleted = (BitSet) deleted.clone();
+
+        storage = new VectorStorage(dimensions, nodesById.size());
+        idsByNode.clear();
+        linksByNode.clear();
+        nodesById.clear();
+        deleted.clear();
+        deletedCount = 0;
+        entryPoint = -1;
+        maxLevel = -1;
+
+        for (int node = 0; node < previousIds.size(); node++) {
+            if (!previousDeleted.get(node)) {
+                insert(previousIds.get(node), previousStorage.get(node));
+            }
+        }
+    }
+
+    private void checkDimensions(float[] vector) {
+        if (vector.length != dimensions) {
+            throw new IllegalArgumentException("Expected vector of " + dimensions + " dimensions, got " + vector.length);
+        }
+    }
+
+    private record Candidate(int node, float similarity) {
+    }
+}
@@ -0,0 +1,45 @@
+package com.sashkolearn.analyzeagent.infrastructure.vector;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * In-process nearest-neighbour index over unit-length vectors, compared by dot product
+ * (= cosine similarity). Implementations are thread-safe.
+ */
+public interface VectorIndex {
+
+    /**
+     * Adds or replaces the vector of the given id. The vector is normalized on the way in.
+     */
+    void upsert(UUID id, float[] vector);
+
+    void remove(UUID id);
+
+    /**
+     * @return up to k ids ordered by descending similarity
+     */
+    List<Match> search(float[] query, int k);
+
+    int size();
+
+    record Match(UUID id, float similarity) {
+    }
+
+    static float[] normalize(float[] vector) {
+        double norm = 0;
+        for (float v : vector) {
+            norm += v * v;
+        }
+        norm = Math.sqrt(norm);
+
+        float[] normalized = new float[vector.length];
+        if (norm == 0) {
+            return normalized;
+        }
+        for (int i = 0; i < vector.length; i++) {
+            normalized[i] = (float) (vector[i] / norm);
+        }
+        return normalized;
+    }
+}
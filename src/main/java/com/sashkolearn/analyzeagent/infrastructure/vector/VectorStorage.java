@@ -0,0 +1,84 @@
+package com.sashkolearn.analyzeagent.infrastructure.vector;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+
+/**
+ * Fixed-dimension float rows in one contiguous off-heap segment, with a SIMD dot product
+ * against an on-heap query. Not thread-safe; callers guard access.
+ */
+final class VectorStorage {
+
+    private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_PREFERRED;
+    private static final long SEGMENT_ALIGNMENT = 64;
+
+    private final int dimensions;
+    private final long rowBytes;
+    private MemorySegment segment;
+    private int capacity;
+
+    VectorStorage(int dimensions, int initialCapacity) {
+        this.dimensions = dimensions;
+        this.rowBytes = (long) dimensions * Float.BYTES;
+        this.capacity = Math.max(1, initialCapacity);
+        this.segment = allocate(capacity);
+    }
+
+    int dimensions() {
+        return dimensions;
+    }
+
+    void set(int row, float[] vector) {
+        ensureCapacity(row + 1);
+        MemorySegment.copy(vector, 0, segment, ValueLayout.JAVA_FLOAT, row * rowBytes, dimensions);
+    }
+
+    float[] get(int row) {
+        return segment.asSlice(row * rowBytes, rowBytes).toArray(ValueLayout.JAVA_FLOAT);
+    }
+
+    void copyRow(int from, int to) {
+        MemorySegment.copy(segment, from * rowBytes, segment, to * rowBytes, rowBytes);
+    }
+
+    float dot(int row, float[] query) {
+        long offset = row * rowBytes;
+        int bound = SPECIES.loopBound(dimensions);
+        FloatVector acc = FloatVector.zero(SPECIES);
+
+        int i = 0;
+        for (; i < bound; i += SPECIES.length()) {
+            FloatVector q = FloatVector.fromArray(SPECIES, query, i);
+            FloatVector v = FloatVector.fromMemorySegment(SPECIES, segment, offset + (long) i * Float.BYTES, ByteOrder.nativeOrder());
+            acc = q.fma(v, acc);
+        }
+
+        float sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < dimensions; i++) {
+            sum += query[i] * segment.get(ValueLayout.JAVA_FLOAT, offset + (long) i * Float.BYTES);
+        }
+        return sum;
+    }
+
+    private void ensureCapacity(int rows) {
+        if (rows <= capacity) {
+            return;
+        }
+        int newCapacity = Math.max(rows, capacity * 2);
+        MemorySegment grown = allocate(newCapacity);
+        MemorySegment.copy(segment, 0, grown, 0, capacity * rowBytes);
+        segment = grown;
+        capacity = newCapacity;
+    }
+
+    private MemorySegment allocate(int rows) {
+        // Automatic arena: the previous segment is released by GC once it is replaced
+        return Arena.ofAuto().allocate(rows * rowBytes, SEGMENT_ALIGNMENT);
+    }
+}
@@ -0,0 +1,189 @@
+package com.sashkolearn.analyzeagent.infrastructure.watch;
+
+import com.sashkolearn.analyzeagent.config.NotesConfig;
+import com.sashkolearn.analyzeagent.domain.service.NoteSyncOrchestrator;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+/**
+ * Watches the notes folder and pushes changed paths through the incremental sync pipeline.
+ * Bursts of events (editor saves, git pulls) are coalesced until the folder has been quiet
+ * for notes.watch.debounce-ms, but never held longer than notes.watch.max-delay-ms.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class NotesWatcher {
+
+    private final NotesConfig notesConfig;
+    private final NoteSyncOrchestrator noteSyncOrchestrator;
+
+    private final Map<WatchKey, Path> watchedDirectories = new ConcurrentHashMap<>();
+    private WatchService watchService;
+    private Thread watcherThread;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!notesConfig.getWatch().isEnabled()) {
+            log.info("Notes watcher disabled");
+            return;
+        }
+
+        Path rootPath = Paths.get(notesConfig.getPath());
+        try {
+            watchService = rootPath.getFileSystem().newWatchService();
+            registerRecursively(rootPath);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to start notes watcher for: " + rootPath, e);
+        }
+
+        watcherThread = Thread.ofPlatform()
+                .name("notes-watcher")
+                .daemon()
+                .start(this::watchLoop);
+
+        log.info("Notes watcher started for {} ({} directories)", rootPath, watchedDirectories.size());
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (watcherThread != null) {
+            watcherThread.interrupt();
+        }
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                log.warn("Failed to close notes watcher: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void watchLoop() {
+        long debounceMs = notesConfig.getWatch().getDebounceMs();
+        long maxDelayMs = notesConfig.getWatch().getMaxDelayMs();
+
+        Set<Path> pendingPaths = new LinkedHashSet<>();
+        boolean overflow = false;
+        long firstEventAt = 0;
+
+        while (!Thread.currentThread().isInterrupted()) {
+            WatchKey key;
+            try {
+                key = watchService.poll(debounceMs, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ClosedWatchServiceException e) {
+                break;
+            }
+
+            if (key != null) {
+                if (pendingPaths.isEmpty() && !overflow) {
+                    firstEventAt = System.currentTimeMillis();
+                }
+                overflow |= collectEvents(key, pendingPaths);
+
+                // Keep coalescing while the burst lasts, unless it has been going on for too long
+                if (System.currentTimeMillis() - firstEventAt < maxDelayMs) {
+                    continue;
+                }
+            }
+
+            if (overflow || !pendingPaths.isEmpty()) {
+                flush(List.copyOf(pendingPaths), overflow);
+                pendingPaths.clear();
+                overflow = false;
+            }
+        }
+
+        log.info("Notes watcher stopped");
+    }
+
+    /**
+     * @return true if the OS dropped events and the changed set can no longer be trusted
+     */
+    private boolean collectEvents(WatchKey key, Set<Path> pendingPaths) {
+        Path directory = watchedDirectories.get(key);
+        boolean overflow = false;
+
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == OVERFLOW) {
+                overflow = true;
+                continue;
+            }
+            if (directory == null) {
+                continue;
+            }
+
+            Path changedPath = directory.resolve((Path) event.context());
+            boolean markdown = changedPath.getFileName().toString().toLowerCase().endsWith(".md");
+
+            if (event.kind() == ENTRY_CREATE && Files.isDirectory(changedPath)) {
+                // New or moved-in folder: watch it and sync everything inside
+                try {
+                    registerRecursively(changedPath);
+                } catch (IOException e) {
+                    log.warn("Failed to watch new directory {}: {}", changedPath, e.getMessage());
+                }
+                pendingPaths.add(changedPath);
+            } else if (markdown || event.kind() == ENTRY_DELETE) {
+                // Deletes of non-markdown paths may be whole folders - sync removes notes under them
+                pendingPaths.add(changedPath);
+            }
+        }
+
+        if (!key.reset()) {
+            watchedDirectories.remove(key);
+        }
+        return overflow;
+    }
+
+    private void flush(List<Path> changedPaths, boolean overflow) {
+        try {
+            if (overflow) {
+                log.warn("Watch events overflowed, falling back to full sync");
+                noteSyncOrchestrator.performFullSync(progress -> log.debug("Watch sync: {}", progress));
+            } else {
+                log.info("Detected {} changed paths, syncing", changedPaths.size());
+                noteSyncOrchestrator.performIncrementalSync(changedPaths, progress -> log.debug("Watch sync: {}", progress));
+            }
+        } catch (Exception e) {
+            log.error("Watch-triggered sync failed for {} paths", changedPaths.size(), e);
+        }
+    }
+
+    private void registerRecursively(Path rootPath) throws IOException {
+        try (Stream<Path> paths = Files.walk(rootPath)) {
+            for (Path directory : (Iterable<Path>) paths.filter(Files::isDirectory)::iterator) {
+                WatchKey key = directory.register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+                watchedDirectories.put(key, directory);
+            }
+        }
+    }
+}
@@ -2,7 +2,9 @@ package com.sashkolearn.analyzeagent.messaging.consumer;
 
 import com.sashkolearn.analyzeagent.domain.service.RagService;
 import com.sashkolearn.analyzeagent.messaging.consumer.dto.AskQuestionTaskDto;
+import com.sashkolearn.analyzeagent.messaging.producer.AskQuestionProgressProducer;
 import com.sashkolearn.analyzeagent.messaging.producer.AskQuestionResultProducer;
+import com.sashkolearn.analyzeagent.messaging.producer.dto.AskQuestionProgressDto;
 import com.sashkolearn.analyzeagent.messaging.producer.dto.AskQuestionResultDto;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -10,6 +12,7 @@ import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Component
 @RequiredArgsConstructor
@@ -18,13 +21,17 @@ public class AskQuestionTaskListener {
 
     private final RagService ragService;
     private final AskQuestionResultProducer resultProducer;
+    private final AskQuestionProgressProducer progressProducer;
 
     @KafkaListener(topics = "ask-question-tasks", groupId = "analyze-agent-group")
     public void handleAskQuestionTask(AskQuestionTaskDto task) {
         log.info("Received ask-question task for chat: {}", task.chatId());
 
         try {
-            RagService.RagResult ragResult = ragService.answerQuestion(task.question());
+            // partial answers go to the progress topic, the final one to the results topic as before
+            AtomicInteger sequence = new AtomicInteger();
+            RagService.RagResult ragResult = ragService.answerQuestion(task.question(), partialAnswer ->
+                    progressProducer.send(new AskQuestionProgressDto(task.chatId(), sequence.incrementAndGet(), partialAnswer)));
 
             AskQuestionResultDto resultDto = new AskQuestionResultDto(
                     task.chatId(),
@@ -1,12 +1,11 @@
 package com.sashkolearn.analyzeagent.messaging.consumer;
 
-import com.sashkolearn.analyzeagent.domain.entity.Note;
-import com.sashkolearn.analyzeagent.domain.repository.NoteRepository;
+import com.sashkolearn.analyzeagent.domain.model.NoteSearchHit;
 import com.sashkolearn.analyzeagent.domain.service.EmbeddingService;
+import com.sashkolearn.analyzeagent.domain.service.NoteSearchService;
 import com.sashkolearn.analyzeagent.messaging.consumer.dto.FindNotesTaskDto;
 import com.sashkolearn.analyzeagent.messaging.producer.FindNotesResultProducer;
 import com.sashkolearn.analyzeagent.messaging.producer.dto.FindNotesResultDto;
-import com.sashkolearn.analyzeagent.util.VectorUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.kafka.annotation.KafkaListener;
@@ -22,7 +21,7 @@ public class FindNotesTaskListener {
     private static final int TOP_RESULTS = 5;
 
     private final EmbeddingService embeddingService;
-    private final NoteRepository noteRepository;
+    private final NoteSearchService noteSearchService;
     private final FindNotesResultProducer resultProducer;
 
     @KafkaListener(topics = "find-notes-tasks", groupId = "analyze-agent-group")
@@ -31,12 +30,10 @@ public class FindNotesTaskListener {
 
         try {
             float[] embedding = embeddingService.generateEmbedding(task.query());
-            String embeddingStr = VectorUtils.toVectorString(embedding);
+            List<NoteSearchHit> hits = noteSearchService.search(task.query(), embedding, TOP_RESULTS);
 
-            List<Note> similarNotes = noteRepository.findSimilarNotes(embeddingStr, TOP_RESULTS);
-
-            List<String> noteNames = similarNotes.stream()
-                    .map(Note::getFileName)
+            List<String> noteNames = hits.stream()
+                    .map(NoteSearchHit::fileName)
                     .toList();
 
             log.info("Found {} notes for query: {}", noteNames.size(), task.query());
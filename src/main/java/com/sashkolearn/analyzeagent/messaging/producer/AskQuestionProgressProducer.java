@@ -0,0 +1,27 @@
+package com.sashkolearn.analyzeagent.messaging.producer;
+
+import com.sashkolearn.analyzeagent.messaging.producer.dto.AskQuestionProgressDto;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Partial answers while the LLM is still generating; the final answer still goes to
+ * {@link AskQuestionResultProducer#TOPIC}.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AskQuestionProgressProducer {
+
+    public static final String TOPIC = "ask-question-progress";
+
+    private final KafkaTemplate<String, AskQuestionProgressDto> kafkaTemplate;
+
+    public void send(AskQuestionProgressDto progress) {
+        String key = progress.chatId().toString();
+        kafkaTemplate.send(TOPIC, key, progress);
+        log.debug("Sent ask-question progress #{} to Kafka for chat: {}", progress.sequence(), progress.chatId());
+    }
+}
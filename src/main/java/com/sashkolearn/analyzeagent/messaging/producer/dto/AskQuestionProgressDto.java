@@ -0,0 +1,8 @@
+package com.sashkolearn.analyzeagent.messaging.producer.dto;
+
+public record AskQuestionProgressDto(
+    Long chatId,
+    Integer sequence,
+    String partialAnswer
+) {
+}
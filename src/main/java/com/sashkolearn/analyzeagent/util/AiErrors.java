@@ -0,0 +1,51 @@
+package com.sashkolearn.analyzeagent.util;
+
+import org.springframework.ai.retry.TransientAiException;
+
+import java.util.Locale;
+
+/**
+ * Classifies errors from model API calls. Spring AI reports every 4xx, including 429,
+ * as a non-transient error, so the status is read from the message ("HTTP 429 - ...").
+ */
+public final class AiErrors {
+
+    private AiErrors() {
+    }
+
+    /**
+     * Rate limit (429), overload (529) and other transient server errors - worth retrying after a pause.
+     */
+    public static boolean isThrottling(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof TransientAiException) {
+                return true;
+            }
+            String message = messageOf(t);
+            if (message.contains("429") || message.contains("529")
+                    || message.contains("rate_limit") || message.contains("overloaded")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The request itself was rejected (400, e.g. an input over the model's context length) -
+     * retrying it unchanged cannot succeed, smaller requests might.
+     */
+    public static boolean isInvalidInput(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            String message = messageOf(t);
+            if (message.contains("http 400") || message.contains("invalid_request")
+                    || message.contains("maximum context length")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String messageOf(Throwable t) {
+        return t.getMessage() == null ? "" : t.getMessage().toLowerCase(Locale.ROOT);
+    }
+}
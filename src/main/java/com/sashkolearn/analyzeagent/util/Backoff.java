@@ -0,0 +1,32 @@
+package com.sashkolearn.analyzeagent.util;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Exponential backoff with jitter for one retried call; not thread-safe, create one per call.
+ */
+public final class Backoff {
+
+    private final long maxMs;
+    private long nextMs;
+
+    public Backoff(long initialMs, long maxMs) {
+        this.nextMs = Math.max(1, initialMs);
+        this.maxMs = Math.max(nextMs, maxMs);
+    }
+
+    /**
+     * Picks a delay between half and all of the current one, then doubles the current delay
+     * up to the maximum. Jitter keeps concurrent workers from retrying in lockstep.
+     */
+    public long nextDelayMs() {
+        long delayMs = ThreadLocalRandom.current().nextLong(nextMs / 2, nextMs + 1);
+        nextMs = Math.min(nextMs * 2, maxMs);
+        return delayMs;
+    }
+
+    public void sleep(long delayMs) throws InterruptedException {
+        TimeUnit.MILLISECONDS.sleep(delayMs);
+    }
+}
@@ -0,0 +1,25 @@
+package com.sashkolearn.analyzeagent.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+public final class HashUtils {
+
+    private HashUtils() {
+    }
+
+    /**
+     * SHA-256 of the UTF-8 bytes of the text, hex encoded (64 chars).
+     * Matches encode(sha256(convert_to(text, 'UTF8')), 'hex') in PostgreSQL.
+     */
+    public static String sha256Hex(String text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(text.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
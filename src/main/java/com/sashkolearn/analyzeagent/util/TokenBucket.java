@@ -0,0 +1,53 @@
+package com.sashkolearn.analyzeagent.util;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Thread-safe token bucket rate limiter. Refills continuously at permitsPerSecond up to burst.
+ */
+public final class TokenBucket {
+
+    private final double capacity;
+    private final double refillPerNano;
+    private double tokens;
+    private long lastRefillNanos;
+
+    public TokenBucket(double permitsPerSecond, double burst) {
+        if (permitsPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("permitsPerSecond must be > 0 and burst >= 1");
+        }
+        this.capacity = burst;
+        this.refillPerNano = permitsPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.tokens = burst;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    public static TokenBucket perMinute(double permitsPerMinute) {
+        double permitsPerSecond = permitsPerMinute / 60.0;
+        return new TokenBucket(permitsPerSecond, Math.max(1, permitsPerSecond));
+    }
+
+    /**
+     * Blocks until a permit is available.
+     */
+    public void acquire() throws InterruptedException {
+        while (true) {
+            long waitNanos;
+            synchronized (this) {
+                refill();
+                if (tokens >= 1) {
+                    tokens -= 1;
+                    return;
+                }
+                waitNanos = (long) Math.ceil((1 - tokens) / refillPerNano);
+            }
+            TimeUnit.NANOSECONDS.sleep(Math.max(waitNanos, 1));
+        }
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefillNanos) * refillPerNano);
+        lastRefillNanos = now;
+    }
+}
@@ -0,0 +1,40 @@
+package com.sashkolearn.analyzeagent.util;
+
+import com.knuddels.jtokkit.Encodings;
+import com.knuddels.jtokkit.api.Encoding;
+import com.knuddels.jtokkit.api.EncodingResult;
+import com.knuddels.jtokkit.api.EncodingType;
+
+/**
+ * Token counts with the cl100k tokenizer used by the OpenAI embedding models. Cyrillic text
+ * takes far more tokens per character than English, so a chars-per-token guess is not safe
+ * for hard limits. For Claude prompts the count is an approximation, close enough for budgets.
+ */
+public final class TokenUtils {
+
+    private static final Encoding ENCODING = Encodings.newLazyEncodingRegistry().getEncoding(EncodingType.CL100K_BASE);
+
+    private TokenUtils() {
+    }
+
+    public static int countTokens(String text) {
+        return ENCODING.countTokensOrdinary(text);
+    }
+
+    /**
+     * @return text itself if it fits in maxTokens, otherwise its longest prefix that does
+     */
+    public static String truncateToTokens(String text, int maxTokens) {
+        EncodingResult encoded = ENCODING.encodeOrdinary(text, Math.max(0, maxTokens));
+        if (!encoded.isTruncated()) {
+            return text;
+        }
+        String prefix = ENCODING.decode(encoded.getTokens());
+        // A cut inside a multi-byte character decodes to replacement chars
+        int end = prefix.length();
+        while (end > 0 && prefix.charAt(end - 1) == '�') {
+            end--;
+        }
+        return prefix.substring(0, end);
+    }
+}
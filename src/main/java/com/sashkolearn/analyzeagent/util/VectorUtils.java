@@ -1,17 +1,44 @@
 package com.sashkolearn.analyzeagent.util;
 
+import java.sql.Array;
+import java.sql.SQLException;
+
 public final class VectorUtils {
 
     private VectorUtils() {
     }
 
-    public static String toVectorString(float[] embedding) {
-        StringBuilder sb = new StringBuilder("[");
-        for (int i = 0; i < embedding.length; i++) {
-            if (i > 0) sb.append(",");
-            sb.append(embedding[i]);
+    /**
+     * Parses pgvector text format "[0.1,0.2,...]".
+     */
+    public static float[] fromVectorString(String vector) {
+        String clean = vector.replaceAll("[\\[\\]]", "");
+        if (clean.isEmpty()) return new float[0];
+        String[] parts = clean.split(",");
+        float[] result = new float[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            result[i] = Float.parseFloat(parts[i].trim());
+        }
+        return result;
+    }
+
+    /**
+     * Converts a real[] column value (a vector read via {@code CAST(embedding AS real[])}).
+     */
+    public static float[] fromSqlArray(Array array) throws SQLException {
+        try {
+            Object values = array.getArray();
+            if (values instanceof float[] floats) {
+                return floats;
+            }
+            Float[] boxed = (Float[]) values;
+            float[] result = new float[boxed.length];
+            for (int i = 0; i < boxed.length; i++) {
+                result[i] = boxed[i];
+            }
+            return result;
+        } finally {
+            array.free();
         }
-        sb.append("]");
-        return sb.toString();
     }
 }
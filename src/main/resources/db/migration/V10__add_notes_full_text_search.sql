@@ -0,0 +1,6 @@
+-- Lexical side of hybrid retrieval. 'simple' config: notes mix Ukrainian and English, and exact
+-- terms (names, acronyms, identifiers) matter more here than stemming.
+ALTER TABLE notes ADD COLUMN content_tsv tsvector
+    GENERATED ALWAYS AS (to_tsvector('simple'::regconfig, file_name || ' ' || content)) STORED;
+
+CREATE INDEX idx_notes_content_tsv ON notes USING gin(content_tsv);
@@ -0,0 +1,18 @@
+-- Answers to previous questions, looked up by question embedding similarity.
+-- source_note_ids: every note the answer's context was built from; a change to any of them drops the entry.
+CREATE TABLE answer_cache (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    model VARCHAR(100) NOT NULL,
+    question TEXT NOT NULL,
+    question_embedding vector(1536) NOT NULL,
+    answer TEXT NOT NULL,
+    source_files TEXT[] NOT NULL,
+    attachment_paths TEXT[] NOT NULL,
+    source_note_ids UUID[] NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_answer_cache_question_embedding_hnsw ON answer_cache
+USING hnsw (question_embedding vector_cosine_ops);
+
+CREATE INDEX idx_answer_cache_source_note_ids ON answer_cache USING gin(source_note_ids);
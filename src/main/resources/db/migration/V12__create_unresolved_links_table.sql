@@ -0,0 +1,14 @@
+-- Wikilinks whose target note does not exist yet; resolved as soon as a note with that name is synced
+CREATE TABLE unresolved_links (
+    from_id UUID NOT NULL REFERENCES notes(id) ON DELETE CASCADE,
+    target_name VARCHAR(500) NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (from_id, target_name)
+);
+
+CREATE INDEX idx_unresolved_links_target_name ON unresolved_links(target_name);
+
+-- The name a link was resolved by, so links into a renamed or deleted note become unresolved again
+ALTER TABLE links ADD COLUMN target_name VARCHAR(500);
+UPDATE links l SET target_name = n.file_name FROM notes n WHERE n.id = l.to_id;
+ALTER TABLE links ALTER COLUMN target_name SET NOT NULL;
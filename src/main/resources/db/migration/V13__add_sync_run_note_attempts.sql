@@ -0,0 +1,4 @@
+-- Failed tries of the current per-note stage; a note that keeps failing is skipped so the run can complete
+ALTER TABLE sync_run_notes
+    ADD COLUMN attempts INTEGER NOT NULL DEFAULT 0,
+    ADD COLUMN last_error TEXT;
@@ -0,0 +1,2 @@
+-- Heading paths of deeply nested or long headings do not fit in 1000 chars
+ALTER TABLE note_chunks ALTER COLUMN heading TYPE TEXT;
@@ -0,0 +1,17 @@
+-- Wikilink targets are free text and may be longer than 500 chars
+ALTER TABLE links ALTER COLUMN target_name TYPE TEXT;
+ALTER TABLE unresolved_links ALTER COLUMN target_name TYPE TEXT;
+
+-- One-off backfill: broken links are recorded only when a note's links are rebuilt, so notes unchanged
+-- since V12 have none. Queue link building for every note in an open sync run (a new one unless a run is
+-- already open); the next sync resumes it and rebuilds links for all notes.
+INSERT INTO sync_runs (stage)
+SELECT 'LINKS'
+WHERE EXISTS (SELECT 1 FROM notes)
+  AND NOT EXISTS (SELECT 1 FROM sync_runs WHERE completed_at IS NULL);
+
+INSERT INTO sync_run_notes (run_id, note_id, attachments_done, links_done)
+SELECT r.id, n.id, TRUE, FALSE
+FROM (SELECT id FROM sync_runs WHERE completed_at IS NULL ORDER BY started_at DESC LIMIT 1) r
+CROSS JOIN notes n
+ON CONFLICT (run_id, note_id) DO UPDATE SET links_done = FALSE;
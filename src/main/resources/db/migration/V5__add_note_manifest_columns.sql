@@ -0,0 +1,5 @@
+ALTER TABLE notes ADD COLUMN file_mtime BIGINT;
+ALTER TABLE notes ADD COLUMN content_hash VARCHAR(64);
+
+-- Backfill hashes so existing notes are not treated as changed on the first manifest-based sync
+UPDATE notes SET content_hash = encode(sha256(convert_to(content, 'UTF8')), 'hex');
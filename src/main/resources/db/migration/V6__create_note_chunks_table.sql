@@ -0,0 +1,18 @@
+CREATE TABLE note_chunks (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    note_id UUID NOT NULL REFERENCES notes(id) ON DELETE CASCADE,
+    chunk_index INT NOT NULL,
+    heading VARCHAR(1000),
+    content TEXT NOT NULL,
+    text_hash VARCHAR(64) NOT NULL,
+    embedding vector(1536),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_note_chunks_note_id ON note_chunks(note_id);
+CREATE INDEX idx_note_chunks_embedding_hnsw ON note_chunks
+USING hnsw (embedding vector_cosine_ops)
+WITH (m = 16, ef_construction = 64);
+
+-- content_hash the chunks were last built from; NULL means the note still needs chunking
+ALTER TABLE notes ADD COLUMN chunked_content_hash VARCHAR(64);
@@ -0,0 +1,20 @@
+CREATE TABLE sync_runs (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    stage VARCHAR(20) NOT NULL,
+    started_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    completed_at TIMESTAMP
+);
+
+CREATE INDEX idx_sync_runs_unfinished ON sync_runs(started_at) WHERE completed_at IS NULL;
+
+-- Notes changed by a run and which per-note stages have already been committed for them
+CREATE TABLE sync_run_notes (
+    run_id UUID NOT NULL REFERENCES sync_runs(id) ON DELETE CASCADE,
+    note_id UUID NOT NULL REFERENCES notes(id) ON DELETE CASCADE,
+    attachments_done BOOLEAN NOT NULL DEFAULT FALSE,
+    links_done BOOLEAN NOT NULL DEFAULT FALSE,
+    PRIMARY KEY (run_id, note_id)
+);
+
+CREATE INDEX idx_sync_run_notes_note_id ON sync_run_notes(note_id);
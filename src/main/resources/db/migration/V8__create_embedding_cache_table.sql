@@ -0,0 +1,9 @@
+-- Content-addressed embeddings: same normalized text + model + dimensions => same vector
+CREATE TABLE embedding_cache (
+    model VARCHAR(100) NOT NULL,
+    dimensions INT NOT NULL,
+    text_hash VARCHAR(64) NOT NULL,
+    embedding vector NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (model, dimensions, text_hash)
+);
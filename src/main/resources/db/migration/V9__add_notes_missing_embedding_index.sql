@@ -0,0 +1,2 @@
+-- Keyset pagination over notes still waiting for an embedding (backfill after a model change or bulk import)
+CREATE INDEX idx_notes_missing_embedding ON notes(id) WHERE embedding IS NULL;
@@ -0,0 +1,51 @@
+package com.sashkolearn.analyzeagent.domain.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NoteSyncServiceTest {
+
+    @TempDir
+    Path notes;
+
+    @Test
+    void newDirectoryReportedWithItsFileYieldsTheFileOnce() throws IOException {
+        Path folder = Files.createDirectory(notes.resolve("New folder"));
+        Path note = Files.writeString(folder.resolve("Note.md"), "# Note");
+
+        // The watcher queues the created folder and the create event of the file inside it
+        NoteSyncService.ChangedFiles changed = NoteSyncService.resolveChangedPaths(List.of(folder, note));
+
+        assertThat(changed.markdownFiles()).containsExactly(note);
+        assertThat(changed.removedPaths()).isEmpty();
+    }
+
+    @Test
+    void fileReportedBeforeItsDirectoryIsKeptOnce() throws IOException {
+        Path folder = Files.createDirectories(notes.resolve("a/b"));
+        Path note = Files.writeString(folder.resolve("Note.md"), "text");
+        Path other = Files.writeString(notes.resolve("a/Other.md"), "text");
+
+        NoteSyncService.ChangedFiles changed = NoteSyncService.resolveChangedPaths(List.of(note, notes.resolve("a"), note));
+
+        assertThat(changed.markdownFiles()).containsExactlyInAnyOrder(note, other);
+    }
+
+    @Test
+    void skipsNonMarkdownFilesAndReportsMissingPathsAsRemoved() throws IOException {
+        Path image = Files.writeString(notes.resolve("image.png"), "png");
+        Path gone = notes.resolve("Deleted folder");
+
+        NoteSyncService.ChangedFiles changed = NoteSyncService.resolveChangedPaths(List.of(image, gone));
+
+        assertThat(changed.markdownFiles()).isEmpty();
+        assertThat(changed.removedPaths()).containsExactly(gone.toAbsolutePath().toString());
+    }
+}
@@ -0,0 +1,120 @@
+package com.sashkolearn.analyzeagent.infrastructure.graph;
+
+import com.sashkolearn.analyzeagent.domain.model.LinkEdge;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LinkGraphTest {
+
+    private static final double ALPHA = 0.15;
+    private static final double EPSILON = 1e-6;
+
+    private final UUID a = UUID.randomUUID();
+    private final UUID b = UUID.randomUUID();
+    private final UUID c = UUID.randomUUID();
+    private final UUID d = UUID.randomUUID();
+
+    @Test
+    void buildDropsDirectionDuplicatesAndSelfLinks() {
+        LinkGraph graph = LinkGraph.build(List.of(
+                new LinkEdge(a, b),
+                new LinkEdge(b, a),
+                new LinkEdge(a, b),
+                new LinkEdge(a, a),
+                new LinkEdge(b, c)));
+
+        assertThat(graph.nodeCount()).isEqualTo(3);
+        assertThat(graph.edgeCount()).isEqualTo(2);
+    }
+
+    @Test
+    void emptyGraphHasNoNodes() {
+        assertThat(LinkGraph.EMPTY.nodeCount()).isZero();
+        assertThat(LinkGraph.EMPTY.edgeCount()).isZero();
+        assertThat(LinkGraph.EMPTY.personalizedPageRank(Map.of(a, 1.0), ALPHA, EPSILON, 2)).isEmpty();
+    }
+
+    @Test
+    void withEdgesReplacedSwapsOnlyLinksTouchingTheGivenNotes() {
+        LinkGraph graph = LinkGraph.build(List.of(new LinkEdge(a, b), new LinkEdge(b, c), new LinkEdge(c, d)));
+
+        LinkGraph updated = graph.withEdgesReplaced(List.of(b), List.of(new LinkEdge(b, d)));
+
+        assertThat(updated.edgeCount()).isEqualTo(2);
+        // a lost its only link; c-d is untouched and b-d is new
+        assertThat(updated.personalizedPageRank(Map.of(b, 1.0), ALPHA, EPSILON, 2)).containsOnlyKeys(c, d);
+        assertThat(updated.personalizedPageRank(Map.of(a, 1.0), ALPHA, EPSILON, 2)).isEmpty();
+        // The original graph is unchanged
+        assertThat(graph.edgeCount()).isEqualTo(3);
+    }
+
+    @Test
+    void withEdgesReplacedRemovesLinksOfDeletedNotes() {
+        LinkGraph graph = LinkGraph.build(List.of(new LinkEdge(a, b), new LinkEdge(b, c)));
+
+        LinkGraph updated = graph.withEdgesReplaced(List.of(c), List.of());
+
+        assertThat(updated.edgeCount()).isEqualTo(1);
+        assertThat(updated.personalizedPageRank(Map.of(a, 1.0), ALPHA, EPSILON, 2)).containsOnlyKeys(b);
+    }
+
+    @Test
+    void pageRankExcludesSeedsAndRespectsHopLimit() {
+        LinkGraph graph = LinkGraph.build(List.of(new LinkEdge(a, b), new LinkEdge(b, c), new LinkEdge(c, d)));
+
+        assertThat(graph.personalizedPageRank(Map.of(a, 1.0), ALPHA, EPSILON, 1)).containsOnlyKeys(b);
+        assertThat(graph.personalizedPageRank(Map.of(a, 1.0), ALPHA, EPSILON, 2)).containsOnlyKeys(b, c);
+    }
+
+    @Test
+    void pageRankScoresCloserNotesHigher() {
+        LinkGraph graph = LinkGraph.build(List.of(new LinkEdge(a, b), new LinkEdge(b, c), new LinkEdge(c, d)));
+
+        Map<UUID, Double> scores = graph.personalizedPageRank(Map.of(a, 1.0), ALPHA, EPSILON, 3);
+
+        assertThat(scores.get(b)).isGreaterThan(scores.get(c));
+        assertThat(scores.get(c)).isGreaterThan(scores.get(d));
+    }
+
+    @Test
+    void pageRankDoesNotFavourHubs() {
+        UUID seed = UUID.randomUUID();
+        UUID neighbour = UUID.randomUUID();
+        UUID hub = UUID.randomUUID();
+        List<LinkEdge> edges = new ArrayList<>(List.of(new LinkEdge(seed, neighbour), new LinkEdge(seed, hub)));
+        for (int i = 0; i < 20; i++) {
+            edges.add(new LinkEdge(UUID.randomUUID(), hub));
+        }
+
+        Map<UUID, Double> scores = LinkGraph.build(edges).personalizedPageRank(Map.of(seed, 1.0), ALPHA, EPSILON, 1);
+
+        assertThat(scores).containsOnlyKeys(neighbour, hub);
+        assertThat(scores.get(neighbour)).isGreaterThan(scores.get(hub));
+    }
+
+    @Test
+    void pageRankWeightsSeeds() {
+        LinkGraph graph = LinkGraph.build(List.of(new LinkEdge(a, c), new LinkEdge(b, d)));
+        Map<UUID, Double> seedWeights = new LinkedHashMap<>();
+        seedWeights.put(a, 1.0);
+        seedWeights.put(b, 0.25);
+
+        Map<UUID, Double> scores = graph.personalizedPageRank(seedWeights, ALPHA, EPSILON, 1);
+
+        assertThat(scores.get(c)).isGreaterThan(scores.get(d));
+    }
+
+    @Test
+    void pageRankIgnoresUnknownSeeds() {
+        LinkGraph graph = LinkGraph.build(List.of(new LinkEdge(a, b)));
+
+        assertThat(graph.personalizedPageRank(Map.of(UUID.randomUUID(), 1.0), ALPHA, EPSILON, 2)).isEmpty();
+    }
+}
@@ -0,0 +1,172 @@
+package com.sashkolearn.analyzeagent.infrastructure.markdown;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class MarkdownScannerTest {
+
+    @Test
+    void parsesHeadingLinks() {
+        MarkdownScan.Wikilink link = singleLink("See [[Note#Some heading]].");
+
+        assertThat(link.target()).isEqualTo("Note");
+        assertThat(link.heading()).isEqualTo("Some heading");
+        assertThat(link.blockRef()).isNull();
+        assertThat(link.alias()).isNull();
+    }
+
+    @Test
+    void parsesBlockRefs() {
+        MarkdownScan.Wikilink link = singleLink("See [[Note#^abc123]].");
+
+        assertThat(link.target()).isEqualTo("Note");
+        assertThat(link.blockRef()).isEqualTo("abc123");
+        assertThat(link.heading()).isNull();
+    }
+
+    @Test
+    void parsesHeadingWithAlias() {
+        MarkdownScan.Wikilink link = singleLink("[[Note#Heading|shown text]]");
+
+        assertThat(link.target()).isEqualTo("Note");
+        assertThat(link.heading()).isEqualTo("Heading");
+        assertThat(link.alias()).isEqualTo("shown text");
+    }
+
+    @Test
+    void hashInAliasIsNotAHeading() {
+        MarkdownScan.Wikilink link = singleLink("[[Note|issue #42]]");
+
+        assertThat(link.target()).isEqualTo("Note");
+        assertThat(link.heading()).isNull();
+        assertThat(link.alias()).isEqualTo("issue #42");
+    }
+
+    @Test
+    void parsesSameNoteHeadingLinks() {
+        MarkdownScan.Wikilink link = singleLink("Jump to [[#Summary]]");
+
+        assertThat(link.target()).isEmpty();
+        assertThat(link.heading()).isEqualTo("Summary");
+    }
+
+    @Test
+    void parsesEscapedPipeInTables() {
+        MarkdownScan.Wikilink link = singleLink("| [[Note\\|alias]] | x |");
+
+        assertThat(link.target()).isEqualTo("Note");
+        assertThat(link.alias()).isEqualTo("alias");
+    }
+
+    @Test
+    void separatesEmbedsFromLinks() {
+        MarkdownScan scan = MarkdownScanner.scan("![[image.png|300]] and [[Note]]");
+
+        assertThat(scan.embeds()).singleElement().satisfies(embed -> {
+            assertThat(embed.target()).isEqualTo("image.png");
+            assertThat(embed.alias()).isEqualTo("300");
+            assertThat(embed.embed()).isTrue();
+        });
+        assertThat(scan.links()).extracting(MarkdownScan.Wikilink::target).containsExactly("Note");
+    }
+
+    @Test
+    void skipsCodeSpans() {
+        MarkdownScan scan = MarkdownScanner.scan("Use `[[NotALink]]` and `#notatag`, then [[Real]] #tag");
+
+        assertThat(scan.links()).extracting(MarkdownScan.Wikilink::target).containsExactly("Real");
+        assertThat(scan.tags()).containsExactly("tag");
+    }
+
+    @Test
+    void codeSpanClosesOnlyOnRunOfSameLength() {
+        MarkdownScan scan = MarkdownScanner.scan("``code with ` and [[Inside]]`` after [[Outside]]");
+
+        assertThat(scan.links()).extracting(MarkdownScan.Wikilink::target).containsExactly("Outside");
+    }
+
+    @Test
+    void unclosedBackticksAreLiteral() {
+        MarkdownScan scan = MarkdownScanner.scan("a ` stray backtick [[Note]]");
+
+        assertThat(scan.links()).extracting(MarkdownScan.Wikilink::target).containsExactly("Note");
+    }
+
+    @Test
+    void skipsFencedCodeBlocks() {
+        MarkdownScan scan = MarkdownScanner.scan("""
+                [[Before]]
+                ```java
+                [[InFence]] #infence
+                # not a heading
+                ```
+                [[After]]
+                """);
+
+        assertThat(scan.links()).extracting(MarkdownScan.Wikilink::target).containsExactly("Before", "After");
+        assertThat(scan.tags()).isEmpty();
+        assertThat(scan.headings()).isEmpty();
+    }
+
+    @Test
+    void linksDoNotSpanLines() {
+        MarkdownScan scan = MarkdownScanner.scan("[[Broken\nline]] and [[Whole]]");
+
+        assertThat(scan.links()).extracting(MarkdownScan.Wikilink::target).containsExactly("Whole");
+    }
+
+    @Test
+    void manyUnclosedLinksStayLinear() {
+        String content = "[[ ".repeat(20_000) + "\n" + "x".repeat(100_000) + "]]";
+
+        MarkdownScan scan = MarkdownScanner.scan(content);
+
+        assertThat(scan.links()).isEmpty();
+    }
+
+    @Test
+    void recordsHeadingsAndTags() {
+        MarkdownScan scan = MarkdownScanner.scan("# Title\n## Section #inline\ntext #tag/nested #123\n#nospace");
+
+        assertThat(scan.headings()).extracting(MarkdownScan.Heading::level, MarkdownScan.Heading::text)
+                .containsExactly(
+                        tuple(1, "Title"),
+                        tuple(2, "Section #inline"));
+        assertThat(scan.tags()).containsExactly("inline", "tag/nested", "nospace");
+    }
+
+    @Test
+    void frontmatterLinksCountButNotTags() {
+        MarkdownScan scan = MarkdownScanner.scan("""
+                ---
+                related: "[[Other]]"
+                # yaml comment #notatag
+                ---
+                Body [[Body link]]
+                """);
+
+        assertThat(scan.hasFrontmatter()).isTrue();
+        assertThat(scan.links()).extracting(MarkdownScan.Wikilink::target).containsExactly("Other", "Body link");
+        assertThat(scan.tags()).isEmpty();
+        assertThat(scan.headings()).isEmpty();
+    }
+
+    @Test
+    void reusedScanIsReset() {
+        MarkdownScan scan = MarkdownScanner.scan("[[First]] #one");
+
+        MarkdownScanner.scan("plain text", scan);
+
+        assertThat(scan.links()).isEmpty();
+        assertThat(scan.tags()).isEmpty();
+        assertThat(scan.hasFrontmatter()).isFalse();
+    }
+
+    private static MarkdownScan.Wikilink singleLink(String content) {
+        MarkdownScan scan = MarkdownScanner.scan(content);
+        assertThat(scan.links()).hasSize(1);
+        return scan.links().getFirst();
+    }
+}